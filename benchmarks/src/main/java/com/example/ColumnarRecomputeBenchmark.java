@@ -0,0 +1,81 @@
+package com.example;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bulk recompute of a columnar roster after a class table change, reported
+ * as characters per second on one thread. Each fork starts with the
+ * jdk.incubator.vector module; the scalar forks switch it off with
+ * -Ddemo.noVector=true so both kernels run on the same JVM setup.
+ *
+ * Rows are a random mix of the bundled classes (and some without a class)
+ * at levels 1..30, so levels past a class's last bonus are clamped.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class ColumnarRecomputeBenchmark {
+
+    static final int ROWS = 1_000_000;
+    private static final String VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+
+    private ColumnarRoster roster;
+
+    @Setup
+    public void setup() {
+        String[] classes = {"Warrior", "Wizard", "Bard", ""};
+        Random random = new Random(42);
+        roster = new ColumnarRoster(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            roster.add(classes[random.nextInt(classes.length)], 1 + random.nextInt(30));
+        }
+        roster.recompute();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    @Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE, "-Ddemo.noVector=true"})
+    public ColumnarRoster scalarAll() {
+        roster.recompute();
+        return roster;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    @Fork(value = 1, jvmArgsAppend = VECTOR_MODULE)
+    public ColumnarRoster vectorAll() {
+        roster.recompute();
+        return roster;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    @Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE, "-Ddemo.noVector=true"})
+    public ColumnarRoster scalarOneClass() {
+        roster.recompute("Wizard");
+        return roster;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    @Fork(value = 1, jvmArgsAppend = VECTOR_MODULE)
+    public ColumnarRoster vectorOneClass() {
+        roster.recompute("Wizard");
+        return roster;
+    }
+}
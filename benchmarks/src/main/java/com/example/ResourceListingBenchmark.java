@@ -0,0 +1,106 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Listing the skill icons of one class: the directory scan fallback against
+ * "file:" and "jar:" URLs, and the manifest lookup used at runtime.
+ *
+ * The jar holds `entries` unrelated files besides the four icons, since a
+ * jar scan walks every entry of the archive.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceListingBenchmark {
+
+    private static final String DIR = "skill_icons/warrior/";
+    private static final List<String> ICONS = List.of("frenzy.png", "guardian.png", "pierce.png", "whirlwind.png");
+    private static final Predicate<String> IMAGES = n -> {
+        String low = n.toLowerCase();
+        return low.endsWith(".png") || low.endsWith(".jpg") || low.endsWith(".jpeg");
+    };
+
+    @Param({"100", "10000"})
+    public int entries;
+
+    private Path root;
+    private URL fileUrl;
+    private URL jarUrl;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("listing-bench");
+
+        Path dir = Files.createDirectories(root.resolve("classes").resolve(DIR));
+        for (String icon : ICONS) {
+            Files.write(dir.resolve(icon), new byte[16]);
+        }
+        fileUrl = dir.toUri().toURL();
+
+        Path jar = root.resolve("app.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (int i = 0; i < entries; i++) {
+                put(out, "com/example/filler/entry" + i + ".class");
+            }
+            for (String icon : ICONS) {
+                put(out, "com/example/" + DIR + icon);
+            }
+        }
+        jarUrl = new URL("jar:" + jar.toUri() + "!/com/example/" + DIR);
+    }
+
+    private static void put(JarOutputStream out, String name) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.write(new byte[16]);
+        out.closeEntry();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<String> scanFileUrl() {
+        return ResourceManifest.scanDirectory(fileUrl, IMAGES);
+    }
+
+    @Benchmark
+    public List<String> scanJarUrl() {
+        return ResourceManifest.scanDirectory(jarUrl, IMAGES);
+    }
+
+    @Benchmark
+    public List<String> manifestLookup() {
+        return ResourceManifest.get().listResourceFiles(DIR, IMAGES);
+    }
+}
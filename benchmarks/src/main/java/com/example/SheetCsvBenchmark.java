@@ -0,0 +1,84 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of the sheet CSV format: parsing one key/value row and escaping one
+ * value through CsvCodec, and reading a whole exported sheet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SheetCsvBenchmark {
+
+    @Param({"plain", "quoted"})
+    public String shape;
+
+    private final CsvCodec codec = new CsvCodec();
+    private final StringBuilder out = new StringBuilder(128);
+    private CharBuffer line;
+    private String value;
+    private String sheet;
+
+    @Setup
+    public void setup() {
+        String row;
+        if ("plain".equals(shape)) {
+            row = "character_name,Aldric the Bold\n";
+            value = "Aldric the Bold";
+        } else {
+            row = "character_name,\"Aldric \"\"the Bold\"\", of Thorn\"\n";
+            value = "Aldric \"the Bold\", of Thorn";
+        }
+        line = CharBuffer.wrap(row.toCharArray());
+        sheet = "fxid,value\nplayer_name,Mara\n" + row + "class_selection,Wizard\nlevel_display_field,14\n";
+    }
+
+    @Benchmark
+    public void parseRow(Blackhole bh) {
+        line.rewind();
+        codec.parse(line, new CsvCodec.RecordHandler() {
+            @Override
+            public void field(int column, CharSequence v) {
+                bh.consume(v.length());
+            }
+
+            @Override
+            public void endRecord(int columns) {
+                bh.consume(columns);
+            }
+        });
+    }
+
+    @Benchmark
+    public StringBuilder writeField() throws IOException {
+        out.setLength(0);
+        CsvCodec.writeField(out, value);
+        return out;
+    }
+
+    @Benchmark
+    public Map<String, String> readSheet() throws IOException {
+        return SheetCsv.readFields(new StringReader(sheet));
+    }
+}
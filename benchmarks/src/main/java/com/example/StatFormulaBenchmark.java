@@ -0,0 +1,96 @@
+package com.example;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one derived stat evaluation: a formula compiled by StatFormula
+ * against the same expression written as Java. Each invocation evaluates
+ * ROWS random characters (attributes and level) and sums the results, so
+ * nothing can be folded away.
+ *
+ * handleInField calls the same MethodHandle tree straight from a field,
+ * i.e. without the hidden class binding, to show what that binding buys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatFormulaBenchmark {
+
+    static final int ROWS = 1024;
+    static final String ATTACK = "strength * 2 + power + intelligence / 3";
+    static final String CRIT = "min(luck * 3 + level, 75)";
+
+    private int[][] attributes;
+    private int[] levels;
+    private StatFormula attack;
+    private StatFormula crit;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        attributes = new int[ROWS][ClassRules.ATTRIBUTE_COUNT];
+        levels = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+                attributes[i][a] = random.nextInt(40);
+            }
+            levels[i] = 1 + random.nextInt(30);
+        }
+        attack = StatFormula.compile("attack", ATTACK, Map.of());
+        crit = StatFormula.compile("crit", CRIT, Map.of());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int handWritten() {
+        int sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            int[] s = attributes[i];
+            sum += s[ClassRules.STRENGTH] * 2 + s[ClassRules.POWER] + s[ClassRules.INTELLIGENCE] / 3;
+            sum += Math.min(s[ClassRules.LUCK] * 3 + levels[i], 75);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int compiled() {
+        int sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            sum += attack.evaluate(attributes[i], levels[i]);
+            sum += crit.evaluate(attributes[i], levels[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int handleInField() throws Throwable {
+        MethodHandle a = attack.handle();
+        MethodHandle c = crit.handle();
+        int sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            sum += (int) a.invokeExact(attributes[i], levels[i]);
+            sum += (int) c.invokeExact(attributes[i], levels[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test of StatServer: a fixed number of client threads
+ * each send GET /stats requests back to back for a while, then the test
+ * reports requests/sec and the latency distribution seen by the clients.
+ * The first seconds are a warm-up and are not counted.
+ *
+ * Without a URL an in-process server is started on a free localhost port.
+ *
+ *   java -cp target/benchmarks.jar com.example.StatServerLoadTest [url] [clients] [seconds]
+ */
+public class StatServerLoadTest {
+
+    private static final int WARMUP_SECONDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 && !args[0].equals("-") ? args[0] : null;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        StatServer server = null;
+        if (url == null) {
+            for (String cls : ResourceManifest.get().classes()) {
+                ClassRules.forClass(cls);
+            }
+            server = new StatServer(0);
+            server.start();
+            url = "http://localhost:" + server.port() + "/";
+        }
+        URI base = URI.create(url.endsWith("/") ? url : url + "/");
+        List<String> classes = ResourceManifest.get().classes();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Metrics.Histogram latency = new Metrics.Histogram();
+        LongAdder errors = new LongAdder();
+        long warmupEnd = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+        long end = warmupEnd + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            Thread t = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        String cls = classes.get(random.nextInt(classes.size()));
+                        HttpRequest request = HttpRequest.newBuilder(base.resolve("stats?class="
+                                + URLEncoder.encode(cls, StandardCharsets.UTF_8) + "&level=" + (1 + random.nextInt(30))))
+                                .build();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            long took = System.nanoTime() - now;
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            } else if (now >= warmupEnd) {
+                                latency.record(took);
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + c);
+            t.setDaemon(true);
+            t.start();
+        }
+        done.await();
+
+        long requests = latency.count();
+        System.out.printf("%d clients, %d s against %s%n", clients, seconds, base);
+        System.out.printf("%d requests, %d errors, %.0f requests/sec%n", requests, errors.sum(), requests / (double) seconds);
+        System.out.printf("latency ms  p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  max %.3f%n",
+                latency.percentile(0.50) / 1e6, latency.percentile(0.90) / 1e6, latency.percentile(0.99) / 1e6,
+                latency.percentile(0.999) / 1e6, latency.max() / 1e6);
+
+        if (server != null) {
+            server.stop();
+        }
+    }
+}
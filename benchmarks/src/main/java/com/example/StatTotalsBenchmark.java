@@ -0,0 +1,50 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The work behind refreshDisplayedStats: resolving the class rules and
+ * reading the five attribute totals for a level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatTotalsBenchmark {
+
+    @Param({"Warrior", "Wizard", "Bard"})
+    public String className;
+
+    @Param({"1", "20"})
+    public int level;
+
+    @Setup
+    public void setup() {
+        ClassRules.forClass(className); // parse outside the measurement
+    }
+
+    @Benchmark
+    public void refreshDisplayedStats(Blackhole bh) {
+        ClassRules rules = ClassRules.forClass(className);
+        bh.consume(rules.stat(ClassRules.STRENGTH, level));
+        bh.consume(rules.stat(ClassRules.DEXTERITY, level));
+        bh.consume(rules.stat(ClassRules.INTELLIGENCE, level));
+        bh.consume(rules.stat(ClassRules.LUCK, level));
+        bh.consume(rules.stat(ClassRules.POWER, level));
+    }
+}
@@ -0,0 +1,229 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Build step (run by exec-maven-plugin, see pom.xml) that compiles the class
+ * data files into com/example/GameClass.java: one enum constant per line of
+ * class_list.txt holding the base values of stats/<class>_stats.csv and the
+ * cumulative (prefix-sum) totals of level bonuses/<class>_level_bonuses.csv.
+ * ClassRules serves these tables directly, so nothing is parsed at runtime.
+ *
+ * Unlike the runtime parser, which reads bad numbers as 0, any missing file,
+ * unknown attribute or malformed row fails the build with its file and line.
+ *
+ * Usage: java ClassTableGenerator.java <resources dir> <generated sources dir>
+ */
+public class ClassTableGenerator {
+
+    static final String[] ATTRIBUTES = {"strength", "dexterity", "intelligence", "luck", "power"};
+    static final String OUTPUT = "com/example/GameClass.java";
+
+    /** a build error pointing at the offending file and line */
+    static final class DataError extends Exception {
+        DataError(Path file, int line, String message) {
+            super(file + (line > 0 ? ":" + line : "") + ": " + message);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ClassTableGenerator <resources dir> <generated sources dir>");
+            System.exit(2);
+        }
+        Path resources = Path.of(args[0]);
+        Path out = Path.of(args[1]).resolve(OUTPUT);
+        try {
+            String source = generate(resources);
+            Files.createDirectories(out.getParent());
+            Files.writeString(out, source, StandardCharsets.UTF_8);
+        } catch (DataError e) {
+            System.err.println("[ERROR] class data: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static String generate(Path resources) throws IOException, DataError {
+        Path classList = resources.resolve("com/example/class_list.txt");
+        if (!Files.isRegularFile(classList)) {
+            throw new DataError(classList, 0, "missing");
+        }
+        List<String> classes = new ArrayList<>();
+        for (String line : Files.readAllLines(classList, StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                classes.add(line.trim());
+            }
+        }
+
+        StringBuilder src = new StringBuilder();
+        src.append("package com.example;\n\n");
+        src.append("/**\n");
+        src.append(" * Class tables compiled from class_list.txt, stats/*.csv and level bonuses/*.csv.\n");
+        src.append(" * Generated by src/build/java/ClassTableGenerator.java, do not edit.\n");
+        src.append(" */\n");
+        src.append("enum GameClass {\n\n");
+
+        Set<String> constants = new HashSet<>();
+        for (int c = 0; c < classes.size(); c++) {
+            String cls = classes.get(c);
+            String slug = cls.toLowerCase().replace(' ', '_');
+            int[] base = readBase(resources.resolve("com/example/stats/" + slug + "_stats.csv"));
+            int[][] totals = readTotals(resources.resolve("com/level bonuses/" + cls.toLowerCase() + "_level_bonuses.csv"), base);
+
+            String constant = constantName(cls);
+            if (!constants.add(constant)) {
+                throw new DataError(classList, c + 1, "class name clashes with another one: " + cls);
+            }
+            src.append("    ").append(constant).append("(").append(literal(cls)).append(",\n");
+            src.append("            new int[] {").append(join(base)).append("},\n");
+            src.append("            new int[][] {\n");
+            for (int a = 0; a < ATTRIBUTES.length; a++) {
+                src.append("                {").append(join(totals[a])).append("}, // ").append(ATTRIBUTES[a]).append('\n');
+            }
+            src.append("            })").append(c == classes.size() - 1 ? ";" : ",").append("\n\n");
+        }
+        if (classes.isEmpty()) {
+            src.append("    ;\n\n");
+        }
+
+        src.append("    /* class name as listed in class_list.txt */\n");
+        src.append("    final String className;\n");
+        src.append("    /* base value per attribute */\n");
+        src.append("    final int[] base;\n");
+        src.append("    /* totals[attribute][level] = base + all bonuses granted at or below level */\n");
+        src.append("    final int[][] totals;\n\n");
+        src.append("    GameClass(String className, int[] base, int[][] totals) {\n");
+        src.append("        this.className = className;\n");
+        src.append("        this.base = base;\n");
+        src.append("        this.totals = totals;\n");
+        src.append("    }\n\n");
+        src.append("    /**\n");
+        src.append("     * @param className - class name as listed in class_list.txt, in any case\n");
+        src.append("     * @return the compiled tables, or null for a class not in the build\n");
+        src.append("     */\n");
+        src.append("    static GameClass find(String className) {\n");
+        src.append("        for (GameClass c : values()) {\n");
+        src.append("            if (c.className.equalsIgnoreCase(className)) {\n");
+        src.append("                return c;\n");
+        src.append("            }\n");
+        src.append("        }\n");
+        src.append("        return null;\n");
+        src.append("    }\n");
+        src.append("}\n");
+        return src.toString();
+    }
+
+    /* stats/<class>_stats.csv: header, then attribute,value rows */
+    static int[] readBase(Path file) throws IOException, DataError {
+        List<String> lines = readLines(file);
+        int[] base = new int[ATTRIBUTES.length];
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.split(",", -1);
+            if (parts.length != 2) {
+                throw new DataError(file, i + 1, "expected attribute,value but got: " + line);
+            }
+            int attribute = Arrays.asList(ATTRIBUTES).indexOf(parts[0].trim().toLowerCase());
+            if (attribute < 0) {
+                throw new DataError(file, i + 1, "unknown attribute: " + parts[0].trim());
+            }
+            base[attribute] = number(file, i + 1, parts[1]);
+        }
+        return base;
+    }
+
+    /* level bonuses/<class>_level_bonuses.csv: header, then level,str,dex,int,luck,power rows */
+    static int[][] readTotals(Path file, int[] base) throws IOException, DataError {
+        List<String> lines = readLines(file);
+        int highest = 0;
+        List<int[]> rows = new ArrayList<>();
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.split(",", -1);
+            if (parts.length != ATTRIBUTES.length + 1) {
+                throw new DataError(file, i + 1, "expected " + (ATTRIBUTES.length + 1) + " columns but got: " + line);
+            }
+            int[] row = new int[parts.length];
+            for (int p = 0; p < parts.length; p++) {
+                row[p] = number(file, i + 1, parts[p]);
+            }
+            if (row[0] < 0) {
+                throw new DataError(file, i + 1, "negative level: " + row[0]);
+            }
+            highest = Math.max(highest, row[0]);
+            rows.add(row);
+        }
+
+        int[][] totals = new int[ATTRIBUTES.length][highest + 1];
+        for (int[] row : rows) {
+            for (int a = 0; a < ATTRIBUTES.length; a++) {
+                totals[a][row[0]] += row[a + 1];
+            }
+        }
+        for (int a = 0; a < ATTRIBUTES.length; a++) {
+            int running = base[a];
+            for (int lvl = 0; lvl <= highest; lvl++) {
+                running += totals[a][lvl];
+                totals[a][lvl] = running;
+            }
+        }
+        return totals;
+    }
+
+    static List<String> readLines(Path file) throws IOException, DataError {
+        if (!Files.isRegularFile(file)) {
+            throw new DataError(file, 0, "missing");
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            throw new DataError(file, 0, "empty, expected a header row");
+        }
+        return lines;
+    }
+
+    static int number(Path file, int line, String s) throws DataError {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            throw new DataError(file, line, "not a number: '" + s.trim() + "'");
+        }
+    }
+
+    static String constantName(String cls) {
+        StringBuilder sb = new StringBuilder();
+        for (char ch : cls.toUpperCase().toCharArray()) {
+            sb.append(Character.isLetterOrDigit(ch) ? ch : '_');
+        }
+        if (sb.length() == 0 || !Character.isJavaIdentifierStart(sb.charAt(0))) {
+            sb.insert(0, '_');
+        }
+        return sb.toString();
+    }
+
+    static String literal(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    static String join(int[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+}
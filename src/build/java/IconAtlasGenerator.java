@@ -0,0 +1,146 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Build step (run by exec-maven-plugin, see pom.xml) that packs small images
+ * into a few atlas pages, so the app decodes and uploads one texture instead
+ * of one per icon. Writes com/example/atlas/icons-N.png and
+ * com/example/atlas/icons.atlas, one line per packed image:
+ *
+ *   <page> <x> <y> <width> <height> <path relative to com/example>
+ *
+ * Images are packed in rows (tallest first) with a transparent gutter so
+ * smoothing never samples a neighbour.
+ *
+ * Usage: java IconAtlasGenerator.java <resources dir> <output dir> <dir>...
+ *   where each <dir> is relative to the resources dir, e.g. com/example/skill_icons
+ */
+public class IconAtlasGenerator {
+
+    static final String BASE = "com/example/";
+    static final String ATLAS_DIR = "com/example/atlas/";
+    static final int MAX_SIZE = 2048;
+    static final int GUTTER = 2;
+
+    record Sprite(String path, BufferedImage image) {
+    }
+
+    record Placed(Sprite sprite, int page, int x, int y) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: IconAtlasGenerator <resources dir> <output dir> <dir>...");
+            System.exit(2);
+        }
+        Path resources = Path.of(args[0]);
+        Path out = Path.of(args[1]).resolve(ATLAS_DIR);
+
+        List<Sprite> sprites = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            Path dir = resources.resolve(args[i]);
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : files.filter(IconAtlasGenerator::isImage).sorted().collect(Collectors.toList())) {
+                    BufferedImage image = ImageIO.read(file.toFile());
+                    if (image == null) {
+                        throw new IOException("Cannot decode " + file);
+                    }
+                    String path = resources.relativize(file).toString().replace('\\', '/');
+                    if (!path.startsWith(BASE)) {
+                        throw new IOException("Atlas images must be under " + BASE + ": " + path);
+                    }
+                    sprites.add(new Sprite(path.substring(BASE.length()), image));
+                }
+            }
+        }
+
+        sprites.sort(Comparator.comparingInt((Sprite s) -> -s.image().getHeight()).thenComparing(Sprite::path));
+        int width = pageWidth(sprites);
+        List<Placed> placed = new ArrayList<>();
+        List<Integer> pageHeights = new ArrayList<>();
+
+        // shelf packing: fill rows left to right, start a new page when a page is full
+        int page = 0;
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (Sprite s : sprites) {
+            int w = s.image().getWidth() + GUTTER;
+            int h = s.image().getHeight() + GUTTER;
+            if (w > width || h > MAX_SIZE) {
+                throw new IOException("Image too large for the atlas: " + s.path());
+            }
+            if (x + w > width) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            if (y + h > MAX_SIZE) {
+                pageHeights.add(y);
+                page++;
+                x = 0;
+                y = 0;
+                rowHeight = 0;
+            }
+            placed.add(new Placed(s, page, x, y));
+            x += w;
+            rowHeight = Math.max(rowHeight, h);
+        }
+        pageHeights.add(y + rowHeight);
+
+        Files.createDirectories(out);
+        List<String> lines = new ArrayList<>();
+        lines.add("# generated by src/build/java/IconAtlasGenerator.java, do not edit");
+        for (int p = 0; p < pageHeights.size(); p++) {
+            BufferedImage atlas = new BufferedImage(width, Math.max(1, pageHeights.get(p)), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = atlas.createGraphics();
+            for (Placed pl : placed) {
+                if (pl.page() == p) {
+                    g.drawImage(pl.sprite().image(), pl.x(), pl.y(), null);
+                }
+            }
+            g.dispose();
+            ImageIO.write(atlas, "png", out.resolve("icons-" + p + ".png").toFile());
+        }
+        placed.sort(Comparator.comparing(pl -> pl.sprite().path()));
+        for (Placed pl : placed) {
+            lines.add(pl.page() + " " + pl.x() + " " + pl.y() + " "
+                    + pl.sprite().image().getWidth() + " " + pl.sprite().image().getHeight() + " " + pl.sprite().path());
+        }
+        Files.write(out.resolve("icons.atlas"), lines, StandardCharsets.UTF_8);
+    }
+
+    static boolean isImage(Path p) {
+        String name = p.getFileName().toString().toLowerCase();
+        return Files.isRegularFile(p) && (name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg"));
+    }
+
+    /* smallest power of two that fits the widest image and about a square of all of them */
+    static int pageWidth(List<Sprite> sprites) {
+        long area = 0;
+        int widest = 1;
+        for (Sprite s : sprites) {
+            area += (long) (s.image().getWidth() + GUTTER) * (s.image().getHeight() + GUTTER);
+            widest = Math.max(widest, s.image().getWidth() + GUTTER);
+        }
+        int width = 64;
+        while (width < MAX_SIZE && (width < widest || (long) width * width < area)) {
+            width *= 2;
+        }
+        return width;
+    }
+}
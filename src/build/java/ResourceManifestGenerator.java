@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build step (run by exec-maven-plugin, see pom.xml) that writes
+ * com/example/resource_manifest.txt: the class list plus every file under
+ * src/main/resources, so the app never has to list directories or walk its
+ * own JAR at runtime.
+ *
+ * The listed files match what the JAR serves. Directories packed into the
+ * icon atlas are left out of the JAR (see the resource excludes in
+ * pom.xml), so under them only the images IconAtlasGenerator packs are
+ * listed; IconAtlas serves those. Any other file there would not be in the
+ * JAR and is not listed.
+ *
+ * Usage: java ResourceManifestGenerator.java <resources dir> <output dir> [<packed dir>...]
+ *   where each <packed dir> is one passed to IconAtlasGenerator, e.g. com/example/skill_icons
+ */
+public class ResourceManifestGenerator {
+
+    static final String MANIFEST = "com/example/resource_manifest.txt";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: ResourceManifestGenerator <resources dir> <output dir> [<packed dir>...]");
+            System.exit(2);
+        }
+        Path resources = Path.of(args[0]);
+        Path out = Path.of(args[1]).resolve(MANIFEST);
+        List<Path> packed = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            packed.add(resources.resolve(args[i]));
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# generated by src/build/java/ResourceManifestGenerator.java, do not edit");
+
+        // classes, in the order of class_list.txt
+        Path classList = resources.resolve("com/example/class_list.txt");
+        if (Files.exists(classList)) {
+            for (String line : Files.readAllLines(classList, StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    lines.add("class=" + line.trim());
+                }
+            }
+        }
+
+        // every resource file, as a '/' separated path from the classpath root
+        try (Stream<Path> files = Files.walk(resources)) {
+            lines.addAll(files.filter(Files::isRegularFile)
+                    .filter(p -> isImage(p) || packed.stream().noneMatch(p::startsWith))
+                    .map(p -> resources.relativize(p).toString().replace('\\', '/'))
+                    .filter(p -> !p.equals(MANIFEST))
+                    .sorted()
+                    .map(p -> "file=" + p)
+                    .collect(Collectors.toList()));
+        }
+
+        Files.createDirectories(out.getParent());
+        Files.write(out, lines, StandardCharsets.UTF_8);
+    }
+
+    /* same rule as IconAtlasGenerator.isImage: what the atlas packs */
+    static boolean isImage(Path p) {
+        String name = p.getFileName().toString().toLowerCase();
+        return name.endsWith(".png") || name.endsWith(".jpg") || name.endsWith(".jpeg");
+    }
+}
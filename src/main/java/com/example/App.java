@@ -1,29 +1,189 @@
 package com.example;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.TextArea;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.stage.Stage;
 
 /**
  * JavaFX App
+ *
+ * Command line flags:
+ *   --startup-report  print time to first frame, preload done and first input
+ *   --cds-training    exit once startup is complete (AppCDS archive dump run)
+ *   --data-dir=<dir>  read class data from <dir> before the bundled files and
+ *                     reload it whenever it changes (also -Ddemo.dataDir)
+ *   --no-autosave     do not journal edits or restore the last session (see
+ *                     AutosaveJournal, directory -Ddemo.autosaveDir). The
+ *                     autocomplete names (NameIndex) are kept either way.
+ *                     A second instance using the same directory runs
+ *                     without autosave.
+ *
+ * Ctrl+Shift+D (Cmd+Shift+D on macOS) shows the operation latencies and
+ * counters collected by Metrics.
+ *
+ * File > New Window (Ctrl/Cmd+N) opens another character sheet. Every
+ * window has its own PrimaryController; class rules, images and the icon
+ * atlas are process wide caches, so extra windows parse and decode nothing
+ * that is already loaded. Only the first window restores and journals the
+ * autosave; the app exits when the last window is closed.
  */
 public class App extends Application {
 
-    private static Scene scene;
+    private static CompletableFuture<AutosaveJournal> autosave; // null when disabled; yields null when unavailable
+    private static boolean autosaveClaimed;
+    private static int windows; // sheet windows opened so far, for titles and placement
+    private static CompletableFuture<Void> names; // loading of the persisted NameIndex, null if not loaded
 
     @Override
     public void start(Stage stage) throws IOException {
-        scene = new Scene(loadFXML("primary"));
+        List<String> args = getParameters().getRaw();
+        StartupMetrics metrics = new StartupMetrics(args.contains("--startup-report"));
+
+        String dataDir = System.getProperty("demo.dataDir");
+        for (String arg : args) {
+            if (arg.startsWith("--data-dir=")) {
+                dataDir = arg.substring("--data-dir=".length());
+            }
+        }
+        if (dataDir != null && !dataDir.isBlank()) {
+            DataFiles.setRoot(Path.of(dataDir));
+            DataWatcher.start();
+        }
+
+        // class tables and portraits load in the background while the window is built
+        CompletableFuture<Void> preload = StartupPreload.start();
+
+        if (!args.contains("--cds-training")) {
+            // names of earlier sessions, so autocomplete works right after a restart
+            names = CompletableFuture.runAsync(() -> {
+                try {
+                    NameIndex.shared().load(NameIndex.defaultFile());
+                } catch (IOException | InterruptedException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        if (!args.contains("--no-autosave") && !args.contains("--cds-training")) {
+            // replay and compaction sync the disk, so they run beside the preload, not before the first frame
+            autosave = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return AutosaveJournal.open(AutosaveJournal.defaultDirectory());
+                } catch (IOException e) {
+                    e.printStackTrace(); // run without autosave
+                    return null;
+                }
+            });
+        }
+
+        Scene scene = openSheetWindow(stage);
+        metrics.watch(scene);
+
+        preload.whenComplete((v, ex) -> Platform.runLater(() -> {
+            if (ex != null) {
+                ex.printStackTrace();
+            }
+            metrics.preloaded();
+            if (args.contains("--cds-training")) {
+                Platform.exit();
+            }
+        }));
+    }
+
+    /**
+     * Helper function This function prints the metrics table and the image
+     * memory report to stderr and shows them in a dialog.
+     */
+    private static void showDiagnostics() {
+        String report = Metrics.dump() + System.lineSeparator() + ImageCache.shared().heapReport();
+        System.err.print(report);
+
+        TextArea text = new TextArea(report);
+        text.setEditable(false);
+        text.setStyle("-fx-font-family: monospace;");
+        text.setPrefColumnCount(72);
+        text.setPrefRowCount(Math.min(30, report.split("\n").length + 1));
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Diagnostics");
+        alert.setHeaderText("Operation latencies and image memory");
+        alert.getDialogPane().setContent(text);
+        alert.show();
+    }
+
+    @Override
+    public void stop() {
+        if (autosave != null) {
+            AutosaveJournal journal = autosave.join();
+            if (journal != null) {
+                journal.close();
+            }
+        }
+        if (names != null) {
+            try {
+                names.join(); // never save a half loaded index over the full file
+                NameIndex.shared().save(NameIndex.defaultFile());
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Opens another character sheet window with its own controller, placed
+     * a little below and right of the previous one.
+     */
+    static void openSheetWindow() {
+        try {
+            openSheetWindow(new Stage());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Scene openSheetWindow(Stage stage) throws IOException {
+        Scene scene = new Scene(loadFXML("primary"));
+        scene.getAccelerators().put(
+                new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN),
+                App::showDiagnostics);
+        windows++;
+        stage.setTitle(windows == 1 ? "Character Sheet" : "Character Sheet " + windows);
+        if (windows > 1) {
+            stage.setX(40.0 + 30 * ((windows - 1) % 10));
+            stage.setY(40.0 + 30 * ((windows - 1) % 10));
+        }
         stage.setScene(scene);
         stage.show();
+        return scene;
     }
 
-    static void setRoot(String fxml) throws IOException {
-        scene.setRoot(loadFXML(fxml));
+    /**
+     * Hands the autosave journal to the first sheet window that asks, so
+     * only one editor restores and journals its fields.
+     *
+     * @return the journal being opened for the first caller (completing with
+     * null if it cannot be opened), null for every later one or without
+     * autosave
+     */
+    static CompletableFuture<AutosaveJournal> claimAutosave() {
+        if (autosaveClaimed) {
+            return null;
+        }
+        autosaveClaimed = true;
+        return autosave;
     }
 
     private static Parent loadFXML(String fxml) throws IOException {
@@ -32,7 +192,7 @@ public class App extends Application {
     }
 
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,356 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead autosave of the sheet editor. Every edit is appended to
+ * journal.csv as a small change record and survives a crash; on startup
+ * the last state is rebuilt from snapshot.csv plus the journal.
+ *
+ * Records are written by one background thread. It drains everything that
+ * queued up while the previous write was in flight and commits it with a
+ * single fsync, so a burst of edits (typing, holding the level button)
+ * costs one disk flush rather than one per keystroke. Every COMPACT_RECORDS
+ * records, or COMPACT_MILLIS after the first unsaved one, the journal is
+ * folded into snapshot.csv (a plain sheet CSV, see SheetCsv) and emptied.
+ *
+ * Journal rows are CSV: sequence, field, old value, new value, CRC32 of the
+ * other four. Replay stops at the first row that is incomplete or fails its
+ * checksum, i.e. a write torn by the crash. Records carry absolute values,
+ * so replaying a record twice (crash between snapshot and truncate) is
+ * harmless.
+ *
+ * One process at a time owns the directory: open() takes a FileLock on
+ * autosave.lock and fails if another instance holds it, so two instances
+ * never append to or compact the same files.
+ */
+final class AutosaveJournal implements AutoCloseable {
+
+    static final String JOURNAL = "journal.csv";
+    static final String SNAPSHOT = "snapshot.csv";
+    static final String LOCK = "autosave.lock";
+    static final int COMPACT_RECORDS = 500;
+    static final long COMPACT_MILLIS = 30_000;
+
+    /* one edit: field is an fxid of the sheet editor (see CharacterSheet) */
+    record Change(long seq, String field, String oldValue, String newValue) {
+    }
+
+    private static final Change CLOSE = new Change(-1, "", "", "");
+
+    private final Path dir;
+    private final FileLock lock; // held until close()
+    private final FileChannel journal;
+    private final Map<String, String> state; // written by the writer thread only, after open()
+    private final Map<String, String> recovered;
+    private final BlockingQueue<Change> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private long seq;
+    private int uncompacted;
+    private long firstUncompacted; // System.nanoTime() of the oldest record not in the snapshot
+
+    private AutosaveJournal(Path dir, FileLock lock, Map<String, String> state, long seq) throws IOException {
+        this.dir = dir;
+        this.lock = lock;
+        this.state = state;
+        this.recovered = Map.copyOf(state);
+        this.seq = seq;
+        this.journal = FileChannel.open(dir.resolve(JOURNAL),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.writer = new Thread(this::run, "autosave");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in a directory (created if needed), replays what a
+     * previous session left there and starts the writer thread.
+     *
+     * @param dir - autosave directory
+     * @return the open journal
+     * @throws IOException if the directory or the journal cannot be opened,
+     * or another instance of the app is using the directory
+     */
+    static AutosaveJournal open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        FileLock lock = lock(dir);
+        try {
+            return open(dir, lock);
+        } catch (IOException | RuntimeException e) {
+            unlock(lock);
+            throw e;
+        }
+    }
+
+    private static AutosaveJournal open(Path dir, FileLock lock) throws IOException {
+        Map<String, String> state = new LinkedHashMap<>();
+        Path snapshot = dir.resolve(SNAPSHOT);
+        if (Files.isRegularFile(snapshot)) {
+            state.putAll(SheetCsv.readFields(snapshot));
+        }
+        long seq = 0;
+        Path log = dir.resolve(JOURNAL);
+        boolean leftover = Files.isRegularFile(log) && Files.size(log) > 0;
+        if (leftover) {
+            try (Reader in = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+                for (Change c : replay(in)) {
+                    state.put(c.field(), c.newValue());
+                    seq = Math.max(seq, c.seq());
+                }
+            }
+        }
+
+        AutosaveJournal j = new AutosaveJournal(dir, lock, state, seq);
+        if (leftover) {
+            j.compact(); // also drops a torn tail, so new records never follow garbage
+        }
+        j.writer.start();
+        return j;
+    }
+
+    /**
+     * Helper function: takes the directory's lock file without waiting.
+     *
+     * @return the held lock; its channel is closed by unlock()
+     * @throws IOException if the lock is held by another instance (or by
+     * another journal of this one)
+     */
+    private static FileLock lock(Path dir) throws IOException {
+        FileChannel channel = FileChannel.open(dir.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Autosave directory " + dir + " is in use by another instance");
+        }
+        return lock;
+    }
+
+    private static void unlock(FileLock lock) {
+        try {
+            lock.channel().close(); // also releases the lock
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return default directory: -Ddemo.autosaveDir, else ~/.demo/autosave
+     */
+    static Path defaultDirectory() {
+        String dir = System.getProperty("demo.autosaveDir");
+        if (dir != null && !dir.isBlank()) {
+            return Path.of(dir);
+        }
+        return Path.of(System.getProperty("user.home"), ".demo", "autosave");
+    }
+
+    /**
+     * @return the editor fields as they were when the previous session last
+     * wrote to the journal, empty if there was none
+     */
+    Map<String, String> recovered() {
+        return recovered;
+    }
+
+    /**
+     * Queues one edit and returns at once; never blocks the FX thread.
+     *
+     * @param field - fxid of the edited control
+     * @param oldValue - value before the edit
+     * @param newValue - value after the edit
+     */
+    void record(String field, String oldValue, String newValue) {
+        queue.add(new Change(0, field, oldValue == null ? "" : oldValue, newValue == null ? "" : newValue));
+    }
+
+    /**
+     * Commits what is queued, compacts the journal, stops the writer and
+     * releases the directory for the next instance.
+     */
+    @Override
+    public void close() {
+        queue.add(CLOSE);
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    /* ---------- WRITER ---------- */
+    private void run() {
+        List<Change> batch = new ArrayList<>();
+        try {
+            while (true) {
+                Change first = uncompacted == 0 ? queue.take()
+                        : queue.poll(remainingMillis(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch); // group commit: everything queued meanwhile
+                }
+                boolean closing = batch.remove(CLOSE);
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                    batch.clear();
+                }
+                if (closing || uncompacted >= COMPACT_RECORDS || (uncompacted > 0 && remainingMillis() == 0)) {
+                    compact();
+                }
+                if (closing) {
+                    journal.close();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace(); // autosave stops, the editor keeps working
+        }
+    }
+
+    private long remainingMillis() {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstUncompacted);
+        return Math.max(0, COMPACT_MILLIS - elapsed);
+    }
+
+    private void commit(List<Change> batch) throws IOException {
+        try (Metrics.Span span = Metrics.start("autosave.commit")) {
+            StringBuilder sb = new StringBuilder(batch.size() * 48);
+            for (Change c : batch) {
+                long n = ++seq;
+                String s = Long.toString(n);
+                sb.append(s).append(',');
+                quoted(sb, c.field()).append(',');
+                quoted(sb, c.oldValue()).append(',');
+                quoted(sb, c.newValue()).append(',');
+                sb.append(checksum(s, c.field(), c.oldValue(), c.newValue())).append('\n');
+                state.put(c.field(), c.newValue());
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                journal.write(bytes);
+            }
+            journal.force(false); // one fsync for the whole batch
+        }
+        if (uncompacted == 0) {
+            firstUncompacted = System.nanoTime();
+        }
+        uncompacted += batch.size();
+    }
+
+    /* always quoted: the reader trims unquoted fields, and a name may start or end with a space */
+    private static StringBuilder quoted(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    /* snapshot first (atomically replaced), then empty the journal */
+    private void compact() throws IOException {
+        try (Metrics.Span span = Metrics.start("autosave.compact")) {
+            Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+            StringWriter out = new StringWriter();
+            SheetCsv.writeFields(state, out);
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    ch.write(bytes);
+                }
+                ch.force(true);
+            }
+            Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal.truncate(0);
+            journal.force(true);
+        }
+        uncompacted = 0;
+    }
+
+    /* ---------- REPLAY ---------- */
+    /**
+     * Parses journal rows up to the first incomplete or corrupt one.
+     *
+     * @param in - journal text
+     * @return the valid changes, in file order
+     * @throws IOException if reading fails
+     */
+    static List<Change> replay(Reader in) throws IOException {
+        ReplayCollector collector = new ReplayCollector();
+        new CsvCodec().parse(in, collector);
+        return collector.changes;
+    }
+
+    private static String checksum(String seq, String field, String oldValue, String newValue) {
+        CRC32 crc = new CRC32();
+        for (String s : new String[] {seq, field, oldValue, newValue}) {
+            crc.update(s.getBytes(StandardCharsets.UTF_8));
+            crc.update(0);
+        }
+        return Long.toHexString(crc.getValue());
+    }
+
+    /* collects change rows until the first bad one */
+    private static final class ReplayCollector implements CsvCodec.RecordHandler {
+
+        final List<Change> changes = new ArrayList<>();
+        private final String[] row = new String[5];
+        private boolean torn;
+
+        @Override
+        public void field(int column, CharSequence value) {
+            if (column < row.length) {
+                row[column] = value.toString();
+            }
+        }
+
+        @Override
+        public void endRecord(int columns) {
+            if (torn) {
+                return;
+            }
+            if (columns != row.length || !row[4].equals(checksum(row[0], row[1], row[2], row[3]))) {
+                torn = true; // everything after a torn write is suspect
+                return;
+            }
+            try {
+                changes.add(new Change(Long.parseLong(row[0]), row[1], row[2], row[3]));
+            } catch (NumberFormatException e) {
+                torn = true;
+            }
+        }
+    }
+}
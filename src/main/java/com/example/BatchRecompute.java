@@ -0,0 +1,126 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch engine: recomputes attributes for a whole directory tree of
+ * exported character sheets without starting the JavaFX toolkit.
+ *
+ * Every *.csv below the input directory is read with the sheet format of
+ * the editor (SheetCsv), its attributes are computed from class and level
+ * (ClassRules) and the sheet is written with the attribute fields added to
+ * the same relative path below the output directory. Files are processed on
+ * a fork-join pool sized to the available cores.
+ *
+ * Usage: BatchRecompute <input dir> <output dir> [threads]
+ */
+public final class BatchRecompute {
+
+    private final Path input;
+    private final Path output;
+    private final int threads;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    BatchRecompute(Path input, Path output, int threads) {
+        // absolute and normalized, so the output-inside-input check in run() works for any spelling
+        this.input = input.toAbsolutePath().normalize();
+        this.output = output.toAbsolutePath().normalize();
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: BatchRecompute <input dir> <output dir> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        BatchRecompute batch = new BatchRecompute(Path.of(args[0]), Path.of(args[1]), threads);
+        if (batch.input.startsWith(batch.output)) {
+            // every input file would count as output and be skipped, so the run would silently do nothing
+            System.err.println("usage: BatchRecompute <input dir> <output dir> [threads]");
+            System.err.println("the output dir must not be the input dir or contain it");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        batch.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long done = batch.processed.sum();
+        System.out.printf("%d sheets (%d failed) in %.3f s on %d threads: %.1f sheets/sec%n",
+                done, batch.failed.sum(), seconds, threads, done / Math.max(seconds, 1e-9));
+    }
+
+    /**
+     * Streams the input tree and processes every sheet. The walk itself is
+     * sequential; at most a few tasks per thread are queued at a time so
+     * memory stays flat for arbitrarily large trees.
+     *
+     * @throws IOException if the input tree cannot be walked
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    void run() throws IOException, InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Semaphore inFlight = new Semaphore(threads * 4);
+        try (Stream<Path> files = Files.walk(input)) {
+            var it = files.filter(p -> !p.startsWith(output)) // output may live inside the input tree
+                    .filter(p -> p.getFileName().toString().toLowerCase().endsWith(".csv"))
+                    .filter(Files::isRegularFile)
+                    .iterator();
+            while (it.hasNext()) {
+                Path sheet = it.next();
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try {
+                        recompute(sheet);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Reads one sheet, adds the computed attribute fields and writes it to
+     * the mirrored location in the output tree. Failures are counted and
+     * reported, they do not stop the batch.
+     */
+    private void recompute(Path sheetFile) {
+        try {
+            Map<String, String> fields = SheetCsv.readFields(sheetFile);
+            CharacterSheet sheet = CharacterSheet.fromFields(fields);
+            if (sheet.hasClass()) {
+                ClassRules rules = ClassRules.forClass(sheet.className());
+                for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+                    fields.put(CharacterSheet.ATTRIBUTE_FIELDS[a], Integer.toString(rules.stat(a, sheet.level())));
+                }
+            }
+
+            Path target = output.resolve(input.relativize(sheetFile).toString());
+            Files.createDirectories(target.getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+                SheetCsv.writeFields(fields, out);
+            }
+            processed.increment();
+        } catch (Exception ex) {
+            failed.increment();
+            System.err.println("Failed to recompute " + sheetFile + ": " + ex);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One character, independent of any UI controls. Attributes are not stored;
+ * they are always derived from class and level through ClassRules.
+ *
+ * @param playerName - player_name field
+ * @param characterName - character_name field
+ * @param className - class_selection field, may be empty
+ * @param level - level_display_field, at least 1
+ */
+public record CharacterSheet(String playerName, String characterName, String className, int level) {
+
+    /* fxids of the sheet editor, used as keys in exported CSV files */
+    public static final String PLAYER_NAME = "player_name";
+    public static final String CHARACTER_NAME = "character_name";
+    public static final String CLASS_SELECTION = "class_selection";
+    public static final String LEVEL = "level_display_field";
+
+    /* fxids of the attribute fields, indexed like the ClassRules attributes */
+    static final String[] ATTRIBUTE_FIELDS = {"strength_tf", "dexterity_tf", "intelligence_tf", "luck_tf", "power_tf"};
+
+    public CharacterSheet {
+        playerName = playerName == null ? "" : playerName;
+        characterName = characterName == null ? "" : characterName;
+        className = className == null ? "" : className;
+        level = Math.max(1, level);
+    }
+
+    /**
+     * Builds a sheet from CSV fields. Missing names become empty, a missing
+     * or unreadable level becomes 1 (same default as the editor).
+     *
+     * @param fields - fxid -> value as read by SheetCsv
+     * @return the sheet
+     */
+    static CharacterSheet fromFields(Map<String, String> fields) {
+        return new CharacterSheet(
+                fields.get(PLAYER_NAME),
+                fields.get(CHARACTER_NAME),
+                fields.get(CLASS_SELECTION),
+                parseLevel(fields.get(LEVEL)));
+    }
+
+    /**
+     * @return the fields written by the sheet editor on export, in file order
+     */
+    Map<String, String> toFields() {
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put(PLAYER_NAME, playerName);
+        data.put(CHARACTER_NAME, characterName);
+        data.put(CLASS_SELECTION, className);
+        data.put(LEVEL, Integer.toString(level));
+        return data;
+    }
+
+    /**
+     * @return true if a class is set, i.e. attributes can be computed
+     */
+    public boolean hasClass() {
+        return !className.isBlank();
+    }
+
+    /**
+     * @param attribute - ClassRules attribute index
+     * @return attribute total for this class and level, 0 without a class
+     */
+    public int stat(int attribute) {
+        return hasClass() ? ClassRules.forClass(className).stat(attribute, level) : 0;
+    }
+
+    static int parseLevel(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (Exception e) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable attribute tables for one character class. The class base stats
+ * (stats/<class>_stats.csv) and level bonuses (level bonuses/<class>_level_bonuses.csv)
+ * are folded into cumulative (prefix-sum) arrays, so the attribute total for
+ * any level is a single array lookup.
+ *
+ * The bundled files are compiled into GameClass at build time, so normally
+ * nothing is parsed here. Only a class whose files are overridden by an
+ * external data directory (see DataFiles) is parsed at runtime, which keeps
+ * hot reload working; invalidate() drops one class when its files change.
+ *
+ * Derived stats (attack, crit chance, ...) come from the optional
+ * stats/<class>_formulas.csv, compiled by StatFormula and evaluated once per
+ * level at load time, so they are table lookups like the attributes.
+ *
+ * Instances are cached per class name, ignoring case like the data file
+ * names do, and shared by every controller and window. The cache is an immutable map swapped atomically: lookups read
+ * the current snapshot without locking, and only a miss takes the lock, so
+ * each class is parsed once however many windows ask for it at the same time.
+ */
+public final class ClassRules {
+
+    /* attribute indexes, in the column order of the level bonuses csv */
+    public static final int STRENGTH = 0;
+    public static final int DEXTERITY = 1;
+    public static final int INTELLIGENCE = 2;
+    public static final int LUCK = 3;
+    public static final int POWER = 4;
+    public static final int ATTRIBUTE_COUNT = 5;
+
+    private static final String[] ATTRIBUTE_NAMES = {"strength", "dexterity", "intelligence", "luck", "power"};
+
+    private static final AtomicReference<Map<String, ClassRules>> CACHE = new AtomicReference<>(Map.of());
+
+    private final String className;
+    private final int[] base;
+    // totals[attribute][level] = base + sum of all bonuses granted at or below level
+    private final int[][] totals;
+    private final List<StatFormula> formulas;
+    // derived[formula][level] for levels 0..maxLevel(); higher levels are evaluated on demand
+    private final int[][] derived;
+
+    private ClassRules(String className, int[] base, int[][] totals, List<StatFormula> formulas) {
+        this.className = className;
+        this.base = base;
+        this.totals = totals;
+        this.formulas = formulas;
+        this.derived = new int[formulas.size()][totals[0].length];
+        int[] attributes = new int[ATTRIBUTE_COUNT];
+        for (int lvl = 0; lvl < totals[0].length; lvl++) {
+            for (int a = 0; a < ATTRIBUTE_COUNT; a++) {
+                attributes[a] = totals[a][lvl];
+            }
+            for (int f = 0; f < formulas.size(); f++) {
+                derived[f][lvl] = formulas.get(f).evaluate(attributes, lvl);
+            }
+        }
+    }
+
+    /**
+     * Returns the (cached) rules for a class. Missing or unreadable files
+     * give zero tables, matching the old behaviour of the controller.
+     *
+     * @param className - class name as listed in class_list.txt
+     * @return rules for that class, never null
+     */
+    public static ClassRules forClass(String className) {
+        ClassRules rules = CACHE.get().get(key(className)); // lock-free hit
+        return rules != null ? rules : loadAndPublish(className);
+    }
+
+    /* misses are serialized so concurrent callers never parse the same class twice */
+    private static synchronized ClassRules loadAndPublish(String className) {
+        ClassRules rules = CACHE.get().get(key(className));
+        if (rules == null) {
+            rules = load(className);
+            Map<String, ClassRules> next = new HashMap<>(CACHE.get());
+            next.put(key(className), rules);
+            CACHE.set(Map.copyOf(next));
+        }
+        return rules;
+    }
+
+    /* "Warrior" from class_list.txt and "warrior" from an imported sheet share one entry */
+    private static String key(String className) {
+        return className.toLowerCase();
+    }
+
+    /**
+     * Drops the cached rules of one class, whatever spelling they were
+     * loaded under, so the next forClass() reads its files again. Used when
+     * the data files of that class change.
+     *
+     * @param className - class name as listed in class_list.txt
+     */
+    static synchronized void invalidate(String className) {
+        Map<String, ClassRules> next = new HashMap<>(CACHE.get());
+        if (next.remove(key(className)) != null) {
+            CACHE.set(Map.copyOf(next));
+        }
+    }
+
+    /**
+     * @return names of the classes whose rules are currently cached, as
+     * spelled by the first caller
+     */
+    static Set<String> cachedClasses() {
+        Set<String> names = new HashSet<>();
+        for (ClassRules rules : CACHE.get().values()) {
+            names.add(rules.className);
+        }
+        return names;
+    }
+
+    public String className() {
+        return className;
+    }
+
+    /**
+     * @return highest level that grants a bonus. Levels above it keep the
+     * totals of this level.
+     */
+    public int maxLevel() {
+        return totals[0].length - 1;
+    }
+
+    /**
+     * @param attribute - one of STRENGTH, DEXTERITY, INTELLIGENCE, LUCK, POWER
+     * @return the class base value of the attribute
+     */
+    public int base(int attribute) {
+        return base[attribute];
+    }
+
+    /**
+     * @param attribute - one of STRENGTH, DEXTERITY, INTELLIGENCE, LUCK, POWER
+     * @param level - character level, clamped to [0, maxLevel()]
+     * @return base value plus every bonus granted up to and including level
+     */
+    public int stat(int attribute, int level) {
+        int[] column = totals[attribute];
+        int idx = level < 0 ? 0 : Math.min(level, column.length - 1);
+        return column[idx];
+    }
+
+    /**
+     * @param attribute - one of STRENGTH, DEXTERITY, INTELLIGENCE, LUCK, POWER
+     * @return the totals of the attribute indexed by level 0..maxLevel(). The
+     * array is shared: callers must not modify it.
+     */
+    int[] column(int attribute) {
+        return totals[attribute];
+    }
+
+    /* ---------- DERIVED STATS ---------- */
+    /**
+     * @return number of derived stats defined in stats/<class>_formulas.csv
+     */
+    public int derivedCount() {
+        return formulas.size();
+    }
+
+    /**
+     * @param formula - derived stat index, 0..derivedCount() - 1
+     * @return its name as written in the formulas file, in lower case
+     */
+    public String derivedName(int formula) {
+        return formulas.get(formula).name();
+    }
+
+    /**
+     * @param formula - derived stat index, 0..derivedCount() - 1
+     * @param level - character level, at least 0
+     * @return the derived stat for the attribute totals at that level. Levels
+     * up to maxLevel() are read from a table filled at load time.
+     */
+    public int derived(int formula, int level) {
+        int lvl = Math.max(level, 0);
+        int[] column = derived[formula];
+        if (lvl < column.length) {
+            return column[lvl];
+        }
+        int[] attributes = new int[ATTRIBUTE_COUNT]; // past the last bonus: totals stay, level grows
+        for (int a = 0; a < ATTRIBUTE_COUNT; a++) {
+            attributes[a] = totals[a][column.length - 1];
+        }
+        return formulas.get(formula).evaluate(attributes, lvl);
+    }
+
+    /**
+     * @param attribute - attribute index
+     * @return lower case attribute name as used in the csv headers
+     */
+    public static String attributeName(int attribute) {
+        return ATTRIBUTE_NAMES[attribute];
+    }
+
+    /* ---------- PARSING ---------- */
+    private static ClassRules load(String className) {
+        GameClass compiled = GameClass.find(className);
+        if (compiled != null && !DataFiles.overridden(statsFile(className)) && !DataFiles.overridden(bonusesFile(className))) {
+            // build-time tables, shared as is since ClassRules never writes to them
+            return new ClassRules(className, compiled.base, compiled.totals, StatFormula.load(formulasFile(className)));
+        }
+
+        int[] base = loadBase(className);
+        int[][] bonuses = loadBonuses(className);
+
+        // fold per-level bonuses into running totals starting from the base value
+        for (int a = 0; a < ATTRIBUTE_COUNT; a++) {
+            int running = base[a];
+            int[] column = bonuses[a];
+            for (int lvl = 0; lvl < column.length; lvl++) {
+                running += column[lvl];
+                column[lvl] = running;
+            }
+        }
+        return new ClassRules(className, base, bonuses, StatFormula.load(formulasFile(className)));
+    }
+
+    /**
+     * Reads stats/<class>_stats.csv (attribute,value rows) into base values.
+     */
+    private static int[] loadBase(String className) {
+        int[] base = new int[ATTRIBUTE_COUNT];
+
+        try (InputStream in = DataFiles.open(statsFile(className))) {
+            if (in == null) {
+                return base; // missing file: keep zeros
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line = reader.readLine(); // header
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length < 2) {
+                    continue;
+                }
+                int attribute = attributeIndex(parts[0].trim().toLowerCase());
+                if (attribute >= 0) {
+                    base[attribute] = parseOrZero(parts[1]);
+                }
+            }
+        } catch (Exception e) {
+            // keep what was read so far
+        }
+        return base;
+    }
+
+    /**
+     * Reads level bonuses/<class>_level_bonuses.csv into per-level bonus
+     * columns, indexed [attribute][level]. Rows may be in any order.
+     */
+    private static int[][] loadBonuses(String className) {
+        int[][] bonuses = new int[ATTRIBUTE_COUNT][1];
+        int highest = 0;
+
+        try (InputStream in = DataFiles.open(bonusesFile(className))) {
+            if (in == null) {
+                return bonuses;
+            }
+            BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line = br.readLine(); // header
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length < 6) {
+                    continue;
+                }
+                int level;
+                try {
+                    level = Math.max(0, Integer.parseInt(parts[0].trim()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (level >= bonuses[0].length) {
+                    bonuses = grow(bonuses, level + 1);
+                }
+                highest = Math.max(highest, level);
+                for (int a = 0; a < ATTRIBUTE_COUNT; a++) {
+                    bonuses[a][level] += parseOrZero(parts[a + 1]);
+                }
+            }
+        } catch (Exception e) {
+            // keep what was read so far
+        }
+        for (int a = 0; a < ATTRIBUTE_COUNT; a++) {
+            bonuses[a] = Arrays.copyOf(bonuses[a], highest + 1);
+        }
+        return bonuses;
+    }
+
+    private static String statsFile(String className) {
+        return "stats/" + className.toLowerCase().replace(' ', '_') + "_stats.csv"; // no spaces in file names
+    }
+
+    /* derived stat formulas are not compiled into GameClass, so designers can edit them while the app runs */
+    private static String formulasFile(String className) {
+        return "stats/" + className.toLowerCase().replace(' ', '_') + "_formulas.csv";
+    }
+
+    private static String bonusesFile(String className) {
+        return "/com/level bonuses/" + className.toLowerCase() + "_level_bonuses.csv";
+    }
+
+    private static int[][] grow(int[][] columns, int minLength) {
+        int length = Math.max(minLength, columns[0].length * 2);
+        int[][] grown = new int[columns.length][];
+        for (int a = 0; a < columns.length; a++) {
+            grown[a] = Arrays.copyOf(columns[a], length);
+        }
+        return grown;
+    }
+
+    /**
+     * @param name - lower case attribute name
+     * @return its attribute index, or -1 if it is not an attribute
+     */
+    static int attributeIndex(String name) {
+        for (int a = 0; a < ATTRIBUTE_COUNT; a++) {
+            if (ATTRIBUTE_NAMES[a].equals(name)) {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseOrZero(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A roster held as columns of primitives instead of one object per
+ * character: a class id and a level per row, plus one int array per
+ * attribute holding the computed totals. Recomputing the totals after a
+ * class table changed is then a tight loop over flat arrays.
+ *
+ * recompute() turns every class's ClassRules columns into one flat table
+ * per attribute (classes back to back) and looks up
+ * table[classStart[classId] + min(level, classMax[classId])] for each row.
+ * When the jdk.incubator.vector module is present (run with
+ * --add-modules jdk.incubator.vector) the lookups run as SIMD gathers in
+ * VectorStatKernel; otherwise the same loop runs scalar. The kernel is
+ * compiled apart from the app (src/main/vector) and looked up by name, so
+ * the app neither requires the incubating module nor fails without it.
+ *
+ * Class names are matched ignoring case, like ClassRules.
+ *
+ * Not thread safe; one thread owns an instance.
+ */
+final class ColumnarRoster {
+
+    /**
+     * The recompute loops. The scalar one is below, the SIMD one is
+     * VectorStatKernel.
+     */
+    interface Kernel {
+
+        /**
+         * Writes out[a][i] = tables[a][classStart[c] + clamp(level[i], 0, classMax[c])]
+         * for the rows i < n, where c = classId[i].
+         */
+        void recompute(int[] classId, int[] level, int n, int[] classStart, int[] classMax,
+                int[][] tables, int[][] out);
+
+        /**
+         * Same as above for the rows of class onlyClass; other rows are left
+         * as they are.
+         */
+        void recompute(int[] classId, int[] level, int n, int onlyClass, int[] classStart, int[] classMax,
+                int[][] tables, int[][] out);
+    }
+
+    static final Kernel SCALAR = new ScalarKernel();
+
+    /* VectorStatKernel when the Vector API module is in the boot layer, else SCALAR */
+    static final Kernel KERNEL = loadKernel();
+
+    private final List<String> classNames = new ArrayList<>();
+    private final Map<String, Integer> classIds = new HashMap<>();
+    private int[] classId;
+    private int[] level;
+    private final int[][] stats = new int[ClassRules.ATTRIBUTE_COUNT][];
+    private int size;
+
+    /* flattened class tables, rebuilt by recompute() */
+    private int[] classStart = new int[0];
+    private int[] classMax = new int[0];
+    private final int[][] tables = new int[ClassRules.ATTRIBUTE_COUNT][];
+
+    /**
+     * @param capacity - expected number of characters
+     */
+    ColumnarRoster(int capacity) {
+        capacity = Math.max(capacity, 16);
+        classId = new int[capacity];
+        level = new int[capacity];
+        for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+            stats[a] = new int[capacity];
+        }
+        classIdOf(""); // id 0: no class, all totals 0
+    }
+
+    /**
+     * @param sheets - characters to copy in
+     * @return a roster of the sheets, in order, with computed totals
+     */
+    static ColumnarRoster of(List<CharacterSheet> sheets) {
+        ColumnarRoster roster = new ColumnarRoster(sheets.size());
+        for (CharacterSheet sheet : sheets) {
+            roster.add(sheet.className(), sheet.level());
+        }
+        roster.recompute();
+        return roster;
+    }
+
+    /**
+     * Appends a character. Its totals are 0 until the next recompute().
+     *
+     * @param className - class name, empty for none
+     * @param lvl - character level
+     * @return the row of the character
+     */
+    int add(String className, int lvl) {
+        if (size == classId.length) {
+            int capacity = size * 2;
+            classId = Arrays.copyOf(classId, capacity);
+            level = Arrays.copyOf(level, capacity);
+            for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+                stats[a] = Arrays.copyOf(stats[a], capacity);
+            }
+        }
+        classId[size] = classIdOf(className);
+        level[size] = lvl;
+        return size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String className(int row) {
+        return classNames.get(classId[row]);
+    }
+
+    int level(int row) {
+        return level[row];
+    }
+
+    void setLevel(int row, int lvl) {
+        level[row] = lvl;
+    }
+
+    /**
+     * @param attribute - ClassRules attribute index
+     * @param row - character row
+     * @return total as of the last recompute()
+     */
+    int stat(int attribute, int row) {
+        return stats[attribute][row];
+    }
+
+    /**
+     * Recomputes the totals of every character from the current ClassRules.
+     */
+    void recompute() {
+        try (Metrics.Span span = Metrics.start("roster.recompute")) {
+            flattenTables();
+            KERNEL.recompute(classId, level, size, classStart, classMax, tables, stats);
+        }
+    }
+
+    /**
+     * Recomputes only the characters of one class, e.g. after its level
+     * bonus table changed. Other rows keep their totals.
+     *
+     * @param className - class whose rows to update
+     */
+    void recompute(String className) {
+        Integer id = className == null ? null : classIds.get(className.toLowerCase());
+        if (id == null) {
+            return;
+        }
+        try (Metrics.Span span = Metrics.start("roster.recompute")) {
+            flattenTables();
+            KERNEL.recompute(classId, level, size, id, classStart, classMax, tables, stats);
+        }
+    }
+
+    /* ---------- KERNELS ---------- */
+    /**
+     * Helper function: looks up VectorStatKernel when jdk.incubator.vector
+     * is in the boot layer and -Ddemo.noVector is not set. The app module
+     * does not declare the incubating module, so it is given read access
+     * here first.
+     *
+     * @return the kernel to use, SCALAR if the SIMD one cannot be loaded
+     */
+    private static Kernel loadKernel() {
+        Module vector = ModuleLayer.boot().findModule("jdk.incubator.vector").orElse(null);
+        if (vector == null || Boolean.getBoolean("demo.noVector")) {
+            return SCALAR;
+        }
+        try {
+            ColumnarRoster.class.getModule().addReads(vector);
+            Class<?> kernel = Class.forName("com.example.VectorStatKernel");
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return new VectorKernel(
+                    lookup.findStatic(kernel, "recompute", MethodType.methodType(void.class,
+                            int[].class, int[].class, int.class, int[].class, int[].class, int[][].class, int[][].class)),
+                    lookup.findStatic(kernel, "recompute", MethodType.methodType(void.class,
+                            int[].class, int[].class, int.class, int.class, int[].class, int[].class, int[][].class,
+                            int[][].class)));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            e.printStackTrace(); // e.g. built without the vector-kernel step
+            return SCALAR;
+        }
+    }
+
+    /* calls the two VectorStatKernel loops; one call per recompute, so the handles cost nothing */
+    private static final class VectorKernel implements Kernel {
+
+        private final MethodHandle all;
+        private final MethodHandle oneClass;
+
+        VectorKernel(MethodHandle all, MethodHandle oneClass) {
+            this.all = all;
+            this.oneClass = oneClass;
+        }
+
+        @Override
+        public void recompute(int[] classId, int[] level, int n, int[] classStart, int[] classMax,
+                int[][] tables, int[][] out) {
+            try {
+                all.invokeExact(classId, level, n, classStart, classMax, tables, out);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e); // the kernel declares no checked exceptions
+            }
+        }
+
+        @Override
+        public void recompute(int[] classId, int[] level, int n, int onlyClass, int[] classStart, int[] classMax,
+                int[][] tables, int[][] out) {
+            try {
+                oneClass.invokeExact(classId, level, n, onlyClass, classStart, classMax, tables, out);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Scalar reference loops, also used when the Vector API is missing.
+     * Levels are clamped to [0, classMax] like ClassRules.stat().
+     */
+    private static final class ScalarKernel implements Kernel {
+
+        @Override
+        public void recompute(int[] classId, int[] level, int n, int[] classStart, int[] classMax,
+                int[][] tables, int[][] out) {
+            for (int i = 0; i < n; i++) {
+                int c = classId[i];
+                int idx = classStart[c] + Math.min(Math.max(level[i], 0), classMax[c]);
+                for (int a = 0; a < tables.length; a++) {
+                    out[a][i] = tables[a][idx];
+                }
+            }
+        }
+
+        @Override
+        public void recompute(int[] classId, int[] level, int n, int onlyClass, int[] classStart, int[] classMax,
+                int[][] tables, int[][] out) {
+            int start = classStart[onlyClass];
+            int max = classMax[onlyClass];
+            for (int i = 0; i < n; i++) {
+                if (classId[i] == onlyClass) {
+                    int idx = start + Math.min(Math.max(level[i], 0), max);
+                    for (int a = 0; a < tables.length; a++) {
+                        out[a][i] = tables[a][idx];
+                    }
+                }
+            }
+        }
+    }
+
+    /* ---------- TABLES ---------- */
+    private int classIdOf(String className) {
+        String name = className == null ? "" : className;
+        String key = name.toLowerCase();
+        Integer id = classIds.get(key);
+        if (id == null) {
+            id = classNames.size();
+            classNames.add(name); // first spelling seen
+            classIds.put(key, id);
+        }
+        return id;
+    }
+
+    /* one table per attribute: the ClassRules columns of all classes back to back */
+    private void flattenTables() {
+        int classes = classNames.size();
+        ClassRules[] rules = new ClassRules[classes];
+        classStart = new int[classes];
+        classMax = new int[classes];
+        int length = 0;
+        for (int c = 0; c < classes; c++) {
+            rules[c] = classNames.get(c).isBlank() ? null : ClassRules.forClass(classNames.get(c));
+            classStart[c] = length;
+            classMax[c] = rules[c] == null ? 0 : rules[c].maxLevel();
+            length += classMax[c] + 1;
+        }
+        for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+            int[] table = new int[length];
+            for (int c = 0; c < classes; c++) {
+                if (rules[c] != null) {
+                    System.arraycopy(rules[c].column(a), 0, table, classStart[c], classMax[c] + 1);
+                }
+            }
+            tables[a] = table;
+        }
+    }
+}
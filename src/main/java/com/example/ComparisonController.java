@@ -0,0 +1,212 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.SpinnerValueFactory;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.WindowEvent;
+
+/**
+ * Class comparison screen: the attribute totals of every class at a chosen
+ * level, plus a chart of one attribute over all levels for the selected
+ * classes.
+ *
+ * The whole ComparisonMatrix is computed once in the background; changing
+ * the level or the charted attribute only reads from it. Table rows are
+ * class indexes into the matrix, so the virtualized table only looks up
+ * the cells it shows. Chart series are thinned to MAX_POINTS points so very
+ * high level caps stay responsive.
+ */
+public class ComparisonController {
+
+    private static final int MAX_SERIES = 8;
+    private static final int MAX_POINTS = 200;
+
+    @FXML    private Spinner<Integer> level_spinner;
+    @FXML    private ComboBox<String> attribute_choice;
+    @FXML    private Label status_label;
+    @FXML    private TableView<Integer> compare_table;
+    @FXML    private TableColumn<Integer, String> class_col;
+    @FXML    private TableColumn<Integer, Integer> strength_col;
+    @FXML    private TableColumn<Integer, Integer> dexterity_col;
+    @FXML    private TableColumn<Integer, Integer> intelligence_col;
+    @FXML    private TableColumn<Integer, Integer> luck_col;
+    @FXML    private TableColumn<Integer, Integer> power_col;
+    @FXML    private LineChart<Number, Number> compare_chart;
+
+    private ComparisonMatrix matrix;
+    private final DataWatcher.Listener dataListener = new DataWatcher.Listener() {
+        @Override
+        public void classDataChanged(String className) {
+            if (matrix != null) {
+                show(matrix.reload(className));
+            }
+        }
+
+        @Override
+        public void classListChanged() {
+            compute(matrix == null ? 1 : matrix.maxLevel());
+        }
+    };
+    private boolean missedReloads; // true once the window was hidden
+    private Task<ComparisonMatrix> computing;
+    private int initialLevel = 1; // level shown when the first matrix arrives
+
+    /**
+     * Recomputes the matrix for the current class list in the background.
+     *
+     * @param minLevels - levels to compute at least, e.g. the editor's level
+     */
+    void compute(int minLevels) {
+        if (computing != null) {
+            computing.cancel();
+        }
+        if (matrix == null) {
+            initialLevel = minLevels;
+        }
+        List<String> classes = ResourceManifest.get().classes();
+        Task<ComparisonMatrix> task = new Task<>() {
+            @Override
+            protected ComparisonMatrix call() {
+                try (Metrics.Span span = Metrics.start("comparison.compute")) {
+                    return ComparisonMatrix.compute(classes, minLevels);
+                }
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (computing == task) {
+                computing = null;
+                show(task.getValue());
+            }
+        });
+        task.setOnFailed(e -> task.getException().printStackTrace());
+        computing = task;
+        status_label.setText("Computing...");
+        Thread t = new Thread(task, "comparison");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Helper function: shows a freshly computed matrix, keeping the chosen
+     * level and the selected classes where possible.
+     */
+    private void show(ComparisonMatrix m) {
+        List<String> selected = new ArrayList<>();
+        if (matrix != null) {
+            for (Integer row : compare_table.getSelectionModel().getSelectedItems()) {
+                selected.add(matrix.classes().get(row));
+            }
+        }
+        int level = matrix == null || level_spinner.getValue() == null ? initialLevel : level_spinner.getValue();
+        matrix = m;
+
+        level_spinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, m.maxLevel(),
+                Math.min(level, m.maxLevel())));
+
+        ObservableList<Integer> rows = FXCollections.observableArrayList();
+        for (int i = 0; i < m.classes().size(); i++) {
+            rows.add(i);
+        }
+        compare_table.setItems(rows);
+        for (String cls : selected) {
+            int row = m.classes().indexOf(cls);
+            if (row >= 0) {
+                compare_table.getSelectionModel().select(Integer.valueOf(row));
+            }
+        }
+        status_label.setText(m.classes().size() + " classes, levels 1-" + m.maxLevel());
+        updateChart();
+    }
+
+    /**
+     * Helper function: charts the chosen attribute over all levels for up to
+     * MAX_SERIES selected classes, sampling evenly spaced levels.
+     */
+    private void updateChart() {
+        compare_chart.getData().clear();
+        int attribute = attribute_choice.getSelectionModel().getSelectedIndex();
+        if (matrix == null || attribute < 0) {
+            return;
+        }
+        int step = Math.max(1, (matrix.maxLevel() + MAX_POINTS - 1) / MAX_POINTS);
+        List<XYChart.Series<Number, Number>> series = new ArrayList<>();
+        for (Integer row : compare_table.getSelectionModel().getSelectedItems()) {
+            if (series.size() == MAX_SERIES) {
+                break;
+            }
+            XYChart.Series<Number, Number> s = new XYChart.Series<>();
+            s.setName(matrix.classes().get(row));
+            for (int lvl = 1; lvl <= matrix.maxLevel(); lvl += step) {
+                s.getData().add(new XYChart.Data<>(lvl, matrix.stat(row, lvl, attribute)));
+            }
+            if ((matrix.maxLevel() - 1) % step != 0) {
+                s.getData().add(new XYChart.Data<>(matrix.maxLevel(), matrix.stat(row, matrix.maxLevel(), attribute)));
+            }
+            series.add(s);
+        }
+        compare_chart.getData().setAll(series); // one change for the whole chart
+    }
+
+    private void statColumn(TableColumn<Integer, Integer> column, int attribute) {
+        column.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(
+                matrix.stat(c.getValue(), level_spinner.getValue(), attribute)));
+    }
+
+    /* ========= Init ========= */
+    @FXML
+    private void initialize() {
+        class_col.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(matrix.classes().get(c.getValue())));
+        statColumn(strength_col, ClassRules.STRENGTH);
+        statColumn(dexterity_col, ClassRules.DEXTERITY);
+        statColumn(intelligence_col, ClassRules.INTELLIGENCE);
+        statColumn(luck_col, ClassRules.LUCK);
+        statColumn(power_col, ClassRules.POWER);
+        compare_table.setFixedCellSize(24);
+        compare_table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        compare_table.getSelectionModel().getSelectedItems().addListener(
+                (ListChangeListener<Integer>) c -> updateChart());
+
+        level_spinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 1, 1));
+        level_spinner.valueProperty().addListener((obs, was, now) -> compare_table.refresh());
+        for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+            attribute_choice.getItems().add(ClassRules.attributeName(a));
+        }
+        attribute_choice.getSelectionModel().select(ClassRules.STRENGTH);
+        attribute_choice.valueProperty().addListener((obs, was, now) -> updateChart());
+
+        // reloads are received only while the window is showing, so a closed one can be collected
+        status_label.sceneProperty().addListener((obs, old, scene) -> { // the table has no scene until the split pane is skinned
+            if (scene != null) {
+                scene.windowProperty().addListener((o, was, window) -> {
+                    if (window != null) {
+                        window.addEventHandler(WindowEvent.WINDOW_SHOWN, e -> {
+                            DataWatcher.addListener(dataListener);
+                            if (missedReloads && matrix != null) { // reloads while hidden were not seen
+                                compute(matrix.maxLevel());
+                            }
+                        });
+                        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> {
+                            DataWatcher.removeListener(dataListener);
+                            missedReloads = true;
+                        });
+                    }
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,169 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Attribute totals of every class at every level, computed in one parallel
+ * pass: the (class x level x attribute) matrix behind the comparison view.
+ *
+ * Classes are split across the common fork-join pool; each task resolves
+ * the ClassRules of its classes (parsing their files if they are not cached
+ * yet) and copies the prefix-sum totals into a row. A row holds levels 1..
+ * maxLevel for all attributes, laid out level by level, so every lookup is
+ * one array access.
+ *
+ * Instances are immutable; reload() returns a copy with one class recomputed.
+ */
+final class ComparisonMatrix {
+
+    private static final int CLASSES_PER_TASK = 4;
+
+    private final List<String> classes;
+    private final int maxLevel;
+    // rows[class][(level - 1) * ATTRIBUTE_COUNT + attribute]
+    private final int[][] rows;
+
+    private ComparisonMatrix(List<String> classes, int maxLevel, int[][] rows) {
+        this.classes = classes;
+        this.maxLevel = maxLevel;
+        this.rows = rows;
+    }
+
+    /**
+     * Computes the matrix for the given classes.
+     *
+     * @param classes - class names, in row order
+     * @param minLevels - levels to compute at least; raised to the highest
+     * level that grants a bonus in any class
+     * @return the matrix
+     */
+    static ComparisonMatrix compute(List<String> classes, int minLevels) {
+        List<String> names = List.copyOf(classes);
+        ClassRules[] rules = new ClassRules[names.size()];
+        ForkJoinPool.commonPool().invoke(new Resolve(names, rules, 0, names.size()));
+
+        int levels = Math.max(1, minLevels);
+        for (ClassRules r : rules) {
+            levels = Math.max(levels, r.maxLevel());
+        }
+
+        int[][] rows = new int[names.size()][];
+        ForkJoinPool.commonPool().invoke(new Fill(rules, rows, levels, 0, names.size()));
+        return new ComparisonMatrix(names, levels, rows);
+    }
+
+    /**
+     * @param className - class whose tables were reloaded
+     * @return a matrix with that row recomputed; this instance if the class
+     * is not part of it
+     */
+    ComparisonMatrix reload(String className) {
+        int index = classes.indexOf(className);
+        if (index < 0) {
+            return this;
+        }
+        ClassRules rules = ClassRules.forClass(className);
+        if (rules.maxLevel() > maxLevel) {
+            return compute(classes, maxLevel); // new level cap: every row gets longer
+        }
+        int[][] copy = Arrays.copyOf(rows, rows.length); // other rows are shared
+        copy[index] = row(rules, maxLevel);
+        return new ComparisonMatrix(classes, maxLevel, copy);
+    }
+
+    /**
+     * @return class names, in row order
+     */
+    List<String> classes() {
+        return classes;
+    }
+
+    /**
+     * @return highest level in the matrix
+     */
+    int maxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * @param classIndex - row, index into classes()
+     * @param level - 1..maxLevel(), clamped
+     * @param attribute - ClassRules attribute index
+     * @return attribute total
+     */
+    int stat(int classIndex, int level, int attribute) {
+        int lvl = Math.max(1, Math.min(level, maxLevel));
+        return rows[classIndex][(lvl - 1) * ClassRules.ATTRIBUTE_COUNT + attribute];
+    }
+
+    private static int[] row(ClassRules rules, int levels) {
+        int[] row = new int[levels * ClassRules.ATTRIBUTE_COUNT];
+        for (int lvl = 1, i = 0; lvl <= levels; lvl++) {
+            for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+                row[i++] = rules.stat(a, lvl);
+            }
+        }
+        return row;
+    }
+
+    /* resolves (and if needed parses) the rules of a range of classes */
+    private static final class Resolve extends RecursiveAction {
+
+        private final List<String> names;
+        private final ClassRules[] rules;
+        private final int from;
+        private final int to;
+
+        Resolve(List<String> names, ClassRules[] rules, int from, int to) {
+            this.names = names;
+            this.rules = rules;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CLASSES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    rules[i] = ClassRules.forClass(names.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Resolve(names, rules, from, mid), new Resolve(names, rules, mid, to));
+        }
+    }
+
+    /* fills the rows of a range of classes */
+    private static final class Fill extends RecursiveAction {
+
+        private final ClassRules[] rules;
+        private final int[][] rows;
+        private final int levels;
+        private final int from;
+        private final int to;
+
+        Fill(ClassRules[] rules, int[][] rows, int levels, int from, int to) {
+            this.rules = rules;
+            this.rows = rows;
+            this.levels = levels;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CLASSES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    rows[i] = row(rules[i], levels);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Fill(rules, rows, levels, from, mid), new Fill(rules, rows, levels, mid, to));
+        }
+    }
+}
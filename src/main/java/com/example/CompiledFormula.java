@@ -0,0 +1,36 @@
+package com.example;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template of the class StatFormula defines for every compiled formula. It
+ * is never loaded as is: its class file is defined again as a hidden class
+ * whose class data is the formula's MethodHandle tree. FORMULA is then a
+ * static final constant of that hidden class, so the JIT inlines the whole
+ * tree into evaluate() as if the expression had been written in Java.
+ */
+final class CompiledFormula implements StatFormula.Evaluator {
+
+    private static final MethodHandle FORMULA = classData();
+
+    private static MethodHandle classData() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public int evaluate(int[] attributes, int level) {
+        try {
+            return (int) FORMULA.invokeExact(attributes, level);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e); // the operators declare no checked exceptions
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Reusable streaming CSV reader/writer (RFC 4180 quoting).
+ *
+ * Reading is push based: characters are fed from a Reader or CharBuffer
+ * through a small state machine and every completed field is handed to a
+ * RecordHandler as a CharSequence view over an internal buffer. The view is
+ * only valid during the callback; handlers copy what they keep. Apart from
+ * growing the field buffer for unusually long fields, parsing allocates
+ * nothing per field or per record.
+ *
+ * Quoted fields may contain separators, doubled quotes and line breaks.
+ * Whitespace around unquoted fields is trimmed and blank lines are skipped,
+ * like the original sheet importer did.
+ *
+ * An instance keeps parser state and buffers, so it must not be shared
+ * between threads.
+ */
+final class CsvCodec {
+
+    /**
+     * Receives the parsed fields of each record, in order.
+     */
+    interface RecordHandler {
+
+        /**
+         * @param column - 0 based column of the field in its record
+         * @param value - field content, only valid until this call returns
+         */
+        void field(int column, CharSequence value);
+
+        /**
+         * Called after the last field of a record.
+         *
+         * @param columns - number of fields in the record
+         */
+        void endRecord(int columns);
+    }
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3; // saw '"' inside quotes: escaped quote or closing quote
+    private static final int AFTER_QUOTED = 4;
+
+    private final char[] readBuffer = new char[8192];
+    private char[] field = new char[128];
+    private int length;      // chars in field
+    private int significant; // length without trailing unquoted whitespace
+    private int column;
+    private int state;
+    private boolean skipLf;  // swallow the '\n' of a "\r\n" pair
+    private final FieldView view = new FieldView();
+
+    /**
+     * Parses everything the reader provides. The reader is not closed.
+     *
+     * @param in - source of csv text
+     * @param handler - receives fields and record ends
+     * @throws IOException if reading fails
+     */
+    void parse(Reader in, RecordHandler handler) throws IOException {
+        reset();
+        int n;
+        while ((n = in.read(readBuffer, 0, readBuffer.length)) != -1) {
+            feed(readBuffer, 0, n, handler);
+        }
+        finish(handler);
+    }
+
+    /**
+     * Parses the remaining characters of a buffer, advancing its position.
+     *
+     * @param in - csv text
+     * @param handler - receives fields and record ends
+     */
+    void parse(CharBuffer in, RecordHandler handler) {
+        reset();
+        if (in.hasArray()) {
+            feed(in.array(), in.arrayOffset() + in.position(), in.remaining(), handler);
+            in.position(in.limit());
+        } else {
+            while (in.hasRemaining()) {
+                int n = Math.min(in.remaining(), readBuffer.length);
+                in.get(readBuffer, 0, n);
+                feed(readBuffer, 0, n, handler);
+            }
+        }
+        finish(handler);
+    }
+
+    private void reset() {
+        length = significant = column = 0;
+        state = FIELD_START;
+        skipLf = false;
+    }
+
+    private void feed(char[] buf, int off, int len, RecordHandler handler) {
+        for (int i = off, end = off + len; i < end; i++) {
+            char c = buf[i];
+            if (skipLf) {
+                skipLf = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            switch (state) {
+                case QUOTED -> {
+                    if (c == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    } else {
+                        appendSignificant(c); // separators and line breaks are data here
+                    }
+                }
+                case QUOTE_IN_QUOTED -> {
+                    if (c == '"') {
+                        appendSignificant('"'); // "" -> "
+                        state = QUOTED;
+                    } else {
+                        state = AFTER_QUOTED;
+                        outside(c, handler);
+                    }
+                }
+                default -> outside(c, handler);
+            }
+        }
+    }
+
+    /* a character outside of quotes */
+    private void outside(char c, RecordHandler handler) {
+        if (c == ',') {
+            endField(handler);
+        } else if (c == '\n' || c == '\r') {
+            skipLf = c == '\r';
+            endLine(handler);
+        } else if (c == '"' && state == FIELD_START) {
+            state = QUOTED;
+        } else if (c == ' ' || c == '\t') {
+            if (state != FIELD_START) {
+                append(c); // trimmed again if nothing significant follows
+            }
+        } else {
+            if (state == FIELD_START) {
+                state = UNQUOTED;
+            }
+            appendSignificant(c);
+        }
+    }
+
+    private void endField(RecordHandler handler) {
+        length = significant;
+        handler.field(column++, view);
+        length = significant = 0;
+        state = FIELD_START;
+    }
+
+    private void endLine(RecordHandler handler) {
+        if (column == 0 && state == FIELD_START) {
+            return; // blank line
+        }
+        endField(handler);
+        handler.endRecord(column);
+        column = 0;
+    }
+
+    private void finish(RecordHandler handler) {
+        if (state != FIELD_START || column > 0) {
+            endLine(handler); // last record without a trailing line break
+        }
+        reset();
+    }
+
+    private void append(char c) {
+        if (length == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[length++] = c;
+    }
+
+    private void appendSignificant(char c) {
+        append(c);
+        significant = length;
+    }
+
+    /* ---------- WRITING ---------- */
+    /**
+     * Writes one field, quoted only if it contains a separator, quote or line
+     * break, or starts or ends with whitespace the reader would trim. Scans
+     * the value once and writes it without building copies.
+     *
+     * @param out - destination
+     * @param value - field value, null is written as empty
+     * @throws IOException if writing fails
+     */
+    static void writeField(Appendable out, CharSequence value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int n = value.length();
+        boolean padded = n > 0 && (isBlank(value.charAt(0)) || isBlank(value.charAt(n - 1)));
+        int i = 0;
+        while (i < n && !padded) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                break;
+            }
+            i++;
+        }
+        if (i == n && !padded) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (i = 0; i < n; i++) { // char by char: append(value, start, end) would copy
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /* whitespace the reader trims around unquoted fields */
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Writes a key/value record followed by a line break.
+     *
+     * @param out - destination
+     * @param key - first column
+     * @param value - second column
+     * @throws IOException if writing fails
+     */
+    static void writeRecord(Appendable out, CharSequence key, CharSequence value) throws IOException {
+        writeField(out, key);
+        out.append(',');
+        writeField(out, value);
+        out.append(System.lineSeparator());
+    }
+
+    /* read-only view of the current field, reused for every callback */
+    private final class FieldView implements CharSequence {
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return field[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(field, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(field, 0, length);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Resolves the class data files (class_list.txt, stats, level bonuses,
+ * portraits and skill icons) either from an external data directory or from
+ * the bundled resources.
+ *
+ * The data directory is optional. When set, a file in it overrides the
+ * bundled resource of the same path; anything it does not contain still
+ * comes from the jar. Its layout mirrors the resources:
+ *
+ *   class_list.txt
+ *   stats/warrior_stats.csv
+ *   stats/warrior_formulas.csv
+ *   level bonuses/warrior_level_bonuses.csv
+ *   images/warrior_image.png
+ *   skill_icons/warrior/frenzy.png
+ *
+ * Resource paths are relative to com/example (as used with App.class), or
+ * absolute starting with /com/ (the level bonuses).
+ */
+final class DataFiles {
+
+    private static volatile Path root; // null: bundled resources only
+
+    private DataFiles() {
+    }
+
+    /**
+     * @param dir - data directory that overrides bundled files, or null for none
+     */
+    static void setRoot(Path dir) {
+        root = dir == null ? null : dir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return the data directory, or null if none is set
+     */
+    static Path root() {
+        return root;
+    }
+
+    /**
+     * Maps a resource path to its location in the data directory.
+     *
+     * @param resourcePath - path relative to com/example, or absolute under /com/
+     * @return the file in the data directory (which may not exist), or null
+     * when there is no data directory
+     */
+    static Path resolve(String resourcePath) {
+        Path dir = root;
+        if (dir == null) {
+            return null;
+        }
+        String relative = resourcePath;
+        if (relative.startsWith("/com/example/")) {
+            relative = relative.substring("/com/example/".length());
+        } else if (relative.startsWith("/com/")) {
+            relative = relative.substring("/com/".length());
+        }
+        return dir.resolve(relative);
+    }
+
+    /**
+     * @param resourcePath - resource path
+     * @return true if the data directory has its own copy of the file
+     */
+    static boolean overridden(String resourcePath) {
+        Path file = resolve(resourcePath);
+        return file != null && Files.isRegularFile(file);
+    }
+
+    /**
+     * Opens a data file, preferring the data directory.
+     *
+     * @param resourcePath - resource path
+     * @return the stream, or null if the file exists in neither place
+     * @throws IOException if the override exists but cannot be opened
+     */
+    static InputStream open(String resourcePath) throws IOException {
+        Path file = resolve(resourcePath);
+        if (file != null && Files.isRegularFile(file)) {
+            return Files.newInputStream(file);
+        }
+        return DataFiles.class.getResourceAsStream(resourcePath);
+    }
+
+    /**
+     * @param resourcePath - resource path
+     * @return URL of the data directory copy if present, else of the bundled
+     * resource, or null if neither exists
+     */
+    static URL url(String resourcePath) {
+        Path file = resolve(resourcePath);
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                return file.toUri().toURL();
+            } catch (MalformedURLException e) {
+                e.printStackTrace();
+            }
+        }
+        return DataFiles.class.getResource(resourcePath);
+    }
+
+    /**
+     * @param resourceDir - directory relative to com/example, ending in '/'
+     * @return the data directory copy of the directory, or null if there is none
+     */
+    static Path directory(String resourceDir) {
+        Path dir = resolve(resourceDir);
+        return dir != null && Files.isDirectory(dir) ? dir : null;
+    }
+}
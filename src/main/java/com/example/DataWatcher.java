@@ -0,0 +1,205 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javafx.application.Platform;
+
+/**
+ * Watches the data directory (see DataFiles) and hot-reloads what changed.
+ *
+ * Every changed file is mapped back to the one class it belongs to: only
+ * that class's ClassRules and images are dropped from the caches, and
+ * listeners are told which class to recompute. class_list.txt changes
+ * reload just the class list. Events arriving within SETTLE_MILLIS of each
+ * other are handled as one batch, since editors often write a file in
+ * several steps.
+ */
+final class DataWatcher {
+
+    /**
+     * Receives reloads on the FX thread.
+     */
+    interface Listener {
+
+        /**
+         * The tables, portrait or skill icons of a class changed.
+         *
+         * @param className - class name as listed in class_list.txt
+         */
+        default void classDataChanged(String className) {
+        }
+
+        /**
+         * class_list.txt changed.
+         */
+        default void classListChanged() {
+        }
+    }
+
+    private static final long SETTLE_MILLIS = 150;
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final Path root;
+    private final WatchService service;
+
+    private DataWatcher(Path root, WatchService service) {
+        this.root = root;
+        this.service = service;
+    }
+
+    /**
+     * @param listener - called on the FX thread after each reload
+     */
+    static void addListener(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * @param listener - a listener added before, e.g. of a window being closed
+     */
+    static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Starts watching the data directory and its subdirectories on a daemon
+     * thread. Does nothing when no data directory is set.
+     */
+    static void start() {
+        Path root = DataFiles.root();
+        if (root == null) {
+            return;
+        }
+        try {
+            DataWatcher watcher = new DataWatcher(root, FileSystems.getDefault().newWatchService());
+            watcher.registerTree(root);
+            Thread t = new Thread(watcher::run, "data-watcher");
+            t.setDaemon(true);
+            t.start();
+        } catch (IOException e) {
+            System.err.println("Cannot watch data directory " + root);
+            e.printStackTrace();
+        }
+    }
+
+    private void registerTree(Path dir) throws IOException {
+        try (Stream<Path> dirs = Files.walk(dir)) {
+            for (Path d : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                d.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<String> changed = new LinkedHashSet<>();
+                WatchKey key = service.take();
+                // collect until the directory has been quiet for a moment
+                while (key != null) {
+                    collect(key, changed);
+                    key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                apply(changed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* adds the changed paths (relative to root, '/' separated) of one key */
+    private void collect(WatchKey key, Set<String> changed) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                continue;
+            }
+            Path file = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+                try {
+                    registerTree(file); // e.g. a new skill_icons/<class> folder
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            changed.add(root.relativize(file).toString().replace('\\', '/'));
+        }
+        key.reset();
+    }
+
+    /* drops the affected cache entries, then tells the listeners */
+    private void apply(Set<String> changed) {
+        Set<String> classes = new LinkedHashSet<>();
+        boolean classList = false;
+        for (String path : changed) {
+            if (path.equals("class_list.txt")) {
+                classList = true;
+                continue;
+            }
+            String lower = path.toLowerCase();
+            if (lower.endsWith(".png") || lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+                ImageCache.shared().invalidate(path);
+            }
+            String cls = classOf(path);
+            if (cls != null && classes.add(cls)) {
+                ClassRules.invalidate(cls);
+            }
+        }
+        if (classList) {
+            ResourceManifest.get().reloadClasses();
+        }
+
+        boolean listChanged = classList;
+        Platform.runLater(() -> {
+            if (listChanged) {
+                LISTENERS.forEach(Listener::classListChanged);
+            }
+            for (String cls : classes) {
+                Metrics.increment("dataWatcher.reload"); // shown in the diagnostics, not on stderr
+                LISTENERS.forEach(l -> l.classDataChanged(cls));
+            }
+        });
+    }
+
+    /**
+     * Helper function: finds the class a data file belongs to from its
+     * name, using the same naming rules the loaders use.
+     *
+     * @param path - path relative to the data directory
+     * @return the class name, or null if the file belongs to no known class
+     */
+    private static String classOf(String path) {
+        String file = path.substring(path.lastIndexOf('/') + 1).toLowerCase();
+        for (String cls : knownClasses()) {
+            String lower = cls.toLowerCase();
+            String slug = lower.replace(' ', '_');
+            if (path.startsWith("stats/") && (file.equals(slug + "_stats.csv") || file.equals(slug + "_formulas.csv"))
+                    || path.startsWith("level bonuses/") && file.equals(lower + "_level_bonuses.csv")
+                    || path.startsWith("images/") && file.startsWith(slug + "_image.")
+                    || path.startsWith("skill_icons/" + lower + "/") || path.equals("skill_icons/" + lower)) {
+                return cls;
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> knownClasses() {
+        Set<String> classes = new LinkedHashSet<>(ResourceManifest.get().classes());
+        classes.addAll(ClassRules.cachedClasses());
+        return classes;
+    }
+}
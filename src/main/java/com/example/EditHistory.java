@@ -0,0 +1,182 @@
+package com.example;
+
+import java.util.ArrayDeque;
+
+/**
+ * Undo/redo history of the sheet editor. Every step is an immutable
+ * CharacterSheet; a new step shares the field strings of the one before it
+ * (the controls hand back the same String for an unchanged field), so a
+ * step costs one small record plus whatever text actually changed.
+ *
+ * Undo and redo move one step between two deques, O(1) each. The history is
+ * unlimited in count but capped by an estimate of its memory: when the cap
+ * is reached the oldest steps are dropped first. Consecutive changes of the
+ * same single field within COALESCE_NANOS (typing a name, holding the level
+ * button) are merged into one step.
+ */
+final class EditHistory {
+
+    /* default memory cap: 4 MiB, well over 50 000 typical steps */
+    static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+    static final long COALESCE_NANOS = 1_000_000_000L;
+
+    /* fields a step may change, as a bit mask */
+    private static final int PLAYER = 1;
+    private static final int CHARACTER = 2;
+    private static final int CLASS = 4;
+    private static final int LEVEL = 8;
+
+    /* rough heap cost of a step without new strings: deque slot, Step, CharacterSheet */
+    private static final int STEP_BYTES = 8 + 24 + 32;
+
+    /* a past or undone state plus the bytes it is charged against the cap */
+    private record Step(CharacterSheet state, int bytes) {
+    }
+
+    private final long maxBytes;
+    private final ArrayDeque<Step> undo = new ArrayDeque<>(); // oldest first
+    private final ArrayDeque<Step> redo = new ArrayDeque<>(); // next redo last
+    private CharacterSheet current;
+    private long bytes;
+    private int lastChange; // fields changed by the newest step, 0 after undo/redo
+    private long lastTime;
+
+    /**
+     * @param initial - state before any edit
+     * @param maxBytes - memory cap for undo plus redo steps
+     */
+    EditHistory(CharacterSheet initial, long maxBytes) {
+        this.current = initial;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the state the editor currently shows
+     */
+    CharacterSheet current() {
+        return current;
+    }
+
+    /**
+     * Records the state after an edit. Clears the redo steps.
+     *
+     * @param next - state after the edit
+     * @param now - System.nanoTime() of the edit
+     * @return false if nothing changed
+     */
+    boolean record(CharacterSheet next, long now) {
+        int changed = changes(current, next);
+        if (changed == 0) {
+            return false;
+        }
+        clearRedo();
+        boolean single = Integer.bitCount(changed) == 1;
+        if (single && changed == lastChange && now - lastTime < COALESCE_NANOS && !undo.isEmpty()) {
+            current = next; // same field again: extend the newest step
+        } else {
+            push(undo, current, next);
+            current = next;
+            trim();
+        }
+        lastChange = changed;
+        lastTime = now;
+        return true;
+    }
+
+    /**
+     * @return the state to restore, or null if there is nothing to undo
+     */
+    CharacterSheet undo() {
+        Step step = undo.pollLast();
+        if (step == null) {
+            return null;
+        }
+        bytes -= step.bytes();
+        push(redo, current, step.state());
+        current = step.state();
+        lastChange = 0;
+        return current;
+    }
+
+    /**
+     * @return the state to restore, or null if there is nothing to redo
+     */
+    CharacterSheet redo() {
+        Step step = redo.pollLast();
+        if (step == null) {
+            return null;
+        }
+        bytes -= step.bytes();
+        push(undo, current, step.state());
+        current = step.state();
+        lastChange = 0;
+        return current;
+    }
+
+    boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    /**
+     * @return number of undo steps held
+     */
+    int size() {
+        return undo.size();
+    }
+
+    /**
+     * @return estimated heap bytes of all held steps
+     */
+    long bytes() {
+        return bytes;
+    }
+
+    /* pushes state; strings it shares with neighbour are not charged again */
+    private void push(ArrayDeque<Step> deque, CharacterSheet state, CharacterSheet neighbour) {
+        int cost = STEP_BYTES
+                + text(state.playerName(), neighbour.playerName())
+                + text(state.characterName(), neighbour.characterName())
+                + text(state.className(), neighbour.className());
+        deque.addLast(new Step(state, cost));
+        bytes += cost;
+    }
+
+    private void clearRedo() {
+        for (Step s : redo) {
+            bytes -= s.bytes();
+        }
+        redo.clear();
+    }
+
+    /* oldest steps go first; redo steps are the most recent, so they stay */
+    private void trim() {
+        while (bytes > maxBytes && !undo.isEmpty()) {
+            bytes -= undo.pollFirst().bytes();
+        }
+    }
+
+    private static int text(String s, String shared) {
+        return s == shared ? 0 : 40 + s.length(); // String object plus Latin-1 bytes
+    }
+
+    private static int changes(CharacterSheet a, CharacterSheet b) {
+        int changed = 0;
+        if (!a.playerName().equals(b.playerName())) {
+            changed |= PLAYER;
+        }
+        if (!a.characterName().equals(b.characterName())) {
+            changed |= CHARACTER;
+        }
+        if (!a.className().equals(b.className())) {
+            changed |= CLASS;
+        }
+        if (a.level() != b.level()) {
+            changed |= LEVEL;
+        }
+        return changed;
+    }
+}
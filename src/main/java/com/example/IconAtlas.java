@@ -0,0 +1,107 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+
+/**
+ * Skill icons packed into a few atlas pages at build time by
+ * src/build/java/IconAtlasGenerator.java. Each page is decoded once, in the
+ * background, and every icon is shown as a viewport into its page, so all
+ * icons share one texture.
+ *
+ * When the build did not produce an atlas (e.g. running from an IDE) the
+ * atlas is empty and callers load the individual files instead.
+ */
+final class IconAtlas {
+
+    private static final String INDEX = "atlas/icons.atlas";
+
+    /**
+     * One icon: the page it is on and where.
+     *
+     * @param page - atlas page image
+     * @param viewport - icon bounds within the page
+     */
+    record Region(Image page, Rectangle2D viewport) {
+    }
+
+    private final Map<String, Region> regions;
+
+    private IconAtlas(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    /* lazily loaded on first use, then shared */
+    private static final class Holder {
+        static final IconAtlas INSTANCE = load();
+    }
+
+    static IconAtlas get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return true if the build packed any icons
+     */
+    boolean isPresent() {
+        return !regions.isEmpty();
+    }
+
+    /**
+     * @param resourcePath - icon path relative to com/example, as listed by
+     * ResourceManifest
+     * @return the icon's region, or null if it is not in the atlas
+     */
+    Region region(String resourcePath) {
+        return regions.get(resourcePath);
+    }
+
+    /* ---------- PARSING ---------- */
+    private static IconAtlas load() {
+        try (InputStream in = IconAtlas.class.getResourceAsStream(INDEX)) {
+            if (in == null) {
+                return new IconAtlas(Map.of());
+            }
+            List<Image> pages = new ArrayList<>();
+            Map<String, Region> regions = new HashMap<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                // page x y width height path (the path may contain spaces)
+                String[] parts = line.split(" ", 6);
+                int page = Integer.parseInt(parts[0]);
+                while (pages.size() <= page) {
+                    pages.add(loadPage(pages.size()));
+                }
+                Rectangle2D viewport = new Rectangle2D(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                        Integer.parseInt(parts[3]), Integer.parseInt(parts[4]));
+                regions.put(parts[5], new Region(pages.get(page), viewport));
+            }
+            return new IconAtlas(Map.copyOf(regions));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new IconAtlas(Map.of());
+        }
+    }
+
+    private static Image loadPage(int page) {
+        URL url = IconAtlas.class.getResource("atlas/icons-" + page + ".png");
+        if (url == null) {
+            throw new IllegalStateException("Missing atlas page " + page);
+        }
+        return new Image(url.toString(), true);
+    }
+}
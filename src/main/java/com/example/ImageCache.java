@@ -0,0 +1,344 @@
+package com.example;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.scene.Node;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.Image;
+import javafx.stage.Screen;
+import javafx.stage.Window;
+
+/**
+ * Process wide cache of decoded portraits and skill icons, keyed by resource
+ * path (relative to com/example, resolved through DataFiles) and requested
+ * size. Images asked for at a display size are decoded straight to that size
+ * in device pixels, so a 1024x1536 portrait shown in a 250x350 view costs
+ * about 0.3 MiB instead of 6 MiB.
+ *
+ * Images are created with background loading so decoding never runs on the
+ * FX thread. Decoded images are held strongly in a map bounded by an
+ * estimate of their pixel memory, evicting the least recently used first;
+ * entries pushed out of it are kept behind a SoftReference so they can be
+ * revived without decoding again until the GC needs the memory. Tooltips for
+ * skill icons are created once per path.
+ *
+ * One cache serves every sheet window. The strong map is an immutable
+ * snapshot that is replaced as a whole under the lock, so a hit is a plain
+ * read with no locking; only misses, loads and evictions synchronize.
+ */
+final class ImageCache {
+
+    /* default budget for strongly held pixels: 32 MiB */
+    static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final ImageCache SHARED = new ImageCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private long usedBytes; // guarded by this
+    private volatile Map<Key, Entry> strong = Map.of(); // immutable, replaced under this
+    private final Map<Key, SoftReference<Image>> soft = new HashMap<>(); // guarded by this
+    private final Map<String, Tooltip> tooltips = new ConcurrentHashMap<>();
+
+    /* resource path plus requested size in device pixels, 0 x 0 for the source size */
+    private record Key(String path, int width, int height) {
+    }
+
+    /* one cached image plus the bytes it is charged against the budget */
+    private static final class Entry {
+        final Image image;
+        long bytes; // guarded by the cache
+        volatile long lastUse = System.nanoTime(); // recency for eviction, written without the lock
+
+        Entry(Image image) {
+            this.image = image;
+        }
+    }
+
+    ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    static ImageCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the image for a resource path at its source resolution,
+     * decoding it in the background on first use.
+     *
+     * @param resourcePath - path relative to com/example
+     * @return the cached image, or null if the resource does not exist
+     */
+    Image image(String resourcePath) {
+        return image(new Key(resourcePath, 0, 0));
+    }
+
+    /**
+     * Returns the image for a resource path decoded to fit (keeping its aspect
+     * ratio) a box of the given size, smoothly scaled in the background on
+     * first use. The box is in layout units and is multiplied by the output
+     * scale, so images stay sharp on HiDPI screens.
+     *
+     * @param resourcePath - path relative to com/example
+     * @param width - box width, as the fitWidth of the ImageView
+     * @param height - box height, as the fitHeight of the ImageView
+     * @param scale - output scale of the screen the image is shown on
+     * @return the cached image, or null if the resource does not exist
+     */
+    Image image(String resourcePath, double width, double height, double scale) {
+        if (width <= 0 || height <= 0) {
+            return image(resourcePath);
+        }
+        return image(new Key(resourcePath, (int) Math.ceil(width * scale), (int) Math.ceil(height * scale)));
+    }
+
+    private Image image(Key key) {
+        Entry entry = strong.get(key); // lock-free hit
+        if (entry != null) {
+            entry.lastUse = System.nanoTime();
+            Metrics.increment("imageCache.hit");
+            return entry.image;
+        }
+        return load(key);
+    }
+
+    private synchronized Image load(Key key) {
+        Entry entry = strong.get(key); // another thread may have loaded it meanwhile
+        if (entry != null) {
+            entry.lastUse = System.nanoTime();
+            Metrics.increment("imageCache.hit");
+            return entry.image;
+        }
+
+        // revive an image that was evicted but not yet collected
+        SoftReference<Image> ref = soft.remove(key);
+        Image image = ref == null ? null : ref.get();
+        if (image == null) {
+            URL url = DataFiles.url(key.path());
+            if (url == null) {
+                return null;
+            }
+            Metrics.increment("imageCache.miss");
+            try (Metrics.Span span = Metrics.start("image.construct")) {
+                image = key.width() == 0
+                        ? new Image(url.toString(), true)
+                        : new Image(url.toString(), key.width(), key.height(), true, true, true);
+            }
+        } else {
+            Metrics.increment("imageCache.revived");
+        }
+        put(key, image);
+        return image;
+    }
+
+    /**
+     * @param node - a node, shown or not
+     * @return output scale of the window showing the node, or of the primary
+     * screen while the node is not in a window yet
+     */
+    static double outputScale(Node node) {
+        Window window = node.getScene() == null ? null : node.getScene().getWindow();
+        if (window != null && window.isShowing()) {
+            return window.getOutputScaleX();
+        }
+        return Screen.getPrimary().getOutputScaleX();
+    }
+
+    /**
+     * Returns the shared tooltip for a skill icon, titled with the pretty
+     * version of its file name.
+     *
+     * @param resourcePath - path of the icon
+     * @return the tooltip, created on first use
+     */
+    Tooltip tooltip(String resourcePath) {
+        return tooltips.computeIfAbsent(resourcePath, p -> new Tooltip(prettyFileName(p)));
+    }
+
+    /**
+     * Drops an image, at every size, so the next image() call decodes the
+     * file again. Views that already show the old image keep it until they
+     * are updated.
+     *
+     * @param resourcePath - path relative to com/example
+     */
+    synchronized void invalidate(String resourcePath) {
+        Map<Key, Entry> next = new HashMap<>(strong);
+        Iterator<Map.Entry<Key, Entry>> it = next.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().path().equals(resourcePath)) {
+                usedBytes -= e.getValue().bytes;
+                it.remove();
+            }
+        }
+        strong = Map.copyOf(next);
+        soft.keySet().removeIf(k -> k.path().equals(resourcePath));
+    }
+
+    /**
+     * @return estimated bytes of pixels currently held strongly
+     */
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Builds a table of the strongly held images: the pixel memory each one
+     * retains as decoded, and what it would retain at the source resolution
+     * (read from the PNG header, without decoding). Shown in the diagnostics
+     * dialog so oversized art is easy to spot.
+     *
+     * @return the report, one line per image plus totals
+     */
+    String heapReport() {
+        List<Map.Entry<Key, Entry>> entries = new ArrayList<>(strong.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastUse)); // least recently used first
+        List<Key> keys = new ArrayList<>();
+        List<Long> decoded = new ArrayList<>();
+        for (Map.Entry<Key, Entry> e : entries) {
+            keys.add(e.getKey());
+            Image image = e.getValue().image;
+            decoded.add((long) image.getWidth() * (long) image.getHeight() * 4); // 0 while still loading
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-40s %11s %10s %10s%n", "image", "size", "KiB", "source KiB"));
+        long total = 0;
+        long sourceTotal = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Key k = keys.get(i);
+            long bytes = decoded.get(i);
+            long source = k.width() == 0 ? bytes : sourceBytes(k.path()); // unknown source counts as decoded
+            if (source <= 0) {
+                source = bytes;
+            }
+            total += bytes;
+            sourceTotal += source;
+            String size = k.width() == 0 ? "source" : k.width() + "x" + k.height();
+            String name = k.path().length() > 40 ? "..." + k.path().substring(k.path().length() - 37) : k.path();
+            sb.append(String.format("%-40s %11s %10d %10d%n", name, size, bytes / 1024, source / 1024));
+        }
+        sb.append(String.format("%-40s %11s %10d %10d%n", "total (" + keys.size() + " images)", "", total / 1024, sourceTotal / 1024));
+        return sb.toString();
+    }
+
+    /* width * height * 4 from the IHDR chunk of a png, or -1 if not a readable png */
+    private static long sourceBytes(String resourcePath) {
+        URL url = DataFiles.url(resourcePath);
+        if (url == null) {
+            return -1;
+        }
+        try (InputStream in = url.openStream()) {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readLong() != 0x89504E470D0A1A0AL) {
+                return -1;
+            }
+            data.readInt(); // IHDR length
+            data.readInt(); // IHDR type
+            return (long) data.readInt() * data.readInt() * 4;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void put(Key key, Image image) {
+        Entry entry = new Entry(image);
+        Map<Key, Entry> next = new HashMap<>(strong);
+        next.put(key, entry);
+        strong = Map.copyOf(next);
+        if (image.getProgress() >= 1.0) {
+            charge(key, entry);
+        } else {
+            // size is only known once the background decode has finished
+            long requested = System.nanoTime();
+            image.progressProperty().addListener((obs, was, now) -> {
+                if (now.doubleValue() >= 1.0) {
+                    Metrics.record("image.load", System.nanoTime() - requested);
+                    synchronized (ImageCache.this) {
+                        if (strong.get(key) == entry) {
+                            charge(key, entry);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private void charge(Key key, Entry entry) {
+        if (entry.bytes != 0) {
+            return;
+        }
+        entry.bytes = Math.max(1, (long) entry.image.getWidth() * (long) entry.image.getHeight() * 4);
+        usedBytes += entry.bytes;
+        trim(key);
+    }
+
+    /* evict least recently used images (never the one just added) until under budget */
+    private void trim(Key keep) {
+        if (usedBytes <= maxBytes) {
+            return;
+        }
+        List<Map.Entry<Key, Entry>> byAge = new ArrayList<>(strong.entrySet());
+        byAge.sort(Comparator.comparingLong(e -> e.getValue().lastUse));
+        Map<Key, Entry> next = new HashMap<>(strong);
+        for (Map.Entry<Key, Entry> eldest : byAge) {
+            if (usedBytes <= maxBytes) {
+                break;
+            }
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            next.remove(eldest.getKey());
+            usedBytes -= eldest.getValue().bytes;
+            soft.put(eldest.getKey(), new SoftReference<>(eldest.getValue().image));
+        }
+        strong = Map.copyOf(next);
+        soft.values().removeIf(r -> r.get() == null);
+    }
+
+    /**
+     * Helper function This function takes the name of the image file and uses
+     * it to create a tooltip that displays the name when the user hovers over
+     * that skill slot image. String is modified from example_name to Example
+     * Name.
+     *
+     * @param resourcePath
+     * @return
+     */
+    static String prettyFileName(String resourcePath) {
+        // substitute regex's with spaces
+        int slash = resourcePath.lastIndexOf('/');
+        String file = (slash >= 0) ? resourcePath.substring(slash + 1) : resourcePath;
+        int dot = file.lastIndexOf('.');
+        if (dot > 0) {
+            file = file.substring(0, dot);
+        }
+        file = file.replace('_', ' ').replace('-', ' ');
+        // split string at spaces
+        String[] parts = file.split("\\s+");
+        StringBuilder sb = new StringBuilder();
+        for (String p : parts) {
+            if (p.isEmpty()) {
+                continue;
+            }
+            sb.append(Character.toUpperCase(p.charAt(0))); // capitalize first char of each word
+            if (p.length() > 1) {
+                sb.append(p.substring(1));
+            }
+            sb.append(' ');
+        }
+        return sb.toString().trim();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small in-process metrics registry: named counters and latency histograms.
+ *
+ * Operations are timed with a Span:
+ *
+ *     try (Metrics.Span s = Metrics.start("handleLevelUp")) { ... }
+ *
+ * which records the latency into the histogram of that name and emits an
+ * OperationEvent to Flight Recorder. dump() renders count, p50, p99 and max
+ * per operation for the diagnostics overlay (Ctrl+Shift+D).
+ */
+final class Metrics {
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @param operation - histogram / event name
+     * @return span to close when the operation ends
+     */
+    static Span start(String operation) {
+        return new Span(operation);
+    }
+
+    /**
+     * Records an already measured latency.
+     *
+     * @param operation - histogram name
+     * @param nanos - latency
+     */
+    static void record(String operation, long nanos) {
+        HISTOGRAMS.computeIfAbsent(operation, k -> new Histogram()).record(nanos);
+    }
+
+    /**
+     * @param counter - counter name, created on first use
+     */
+    static void increment(String counter) {
+        COUNTERS.computeIfAbsent(counter, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return a text table of all counters and latency percentiles, sorted by name
+     */
+    static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %9s %10s %10s %10s%n", "operation", "count", "p50 ms", "p99 ms", "max ms"));
+        for (var e : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            Histogram h = e.getValue();
+            sb.append(String.format("%-28s %9d %10.3f %10.3f %10.3f%n", e.getKey(), h.count(),
+                    h.percentile(0.50) / 1e6, h.percentile(0.99) / 1e6, h.max() / 1e6));
+        }
+        if (!COUNTERS.isEmpty()) {
+            sb.append(String.format("%n%-28s %9s%n", "counter", "value"));
+            for (var e : new TreeMap<>(COUNTERS).entrySet()) {
+                sb.append(String.format("%-28s %9d%n", e.getKey(), e.getValue().sum()));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * One timed operation. Closing it records the latency and commits the
+     * Flight Recorder event.
+     */
+    static final class Span implements AutoCloseable {
+
+        private final String operation;
+        private final long start;
+        private final OperationEvent event;
+
+        private Span(String operation) {
+            this.operation = operation;
+            this.event = new OperationEvent();
+            this.event.begin();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            record(operation, System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Lock-free log-linear histogram of nanosecond latencies: each power of
+     * two range is split into 8 linear sub-buckets, so percentiles are
+     * accurate to about 12% over the whole long range.
+     */
+    static final class Histogram {
+
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private volatile long max;
+
+        void record(long nanos) {
+            long v = Math.max(0, nanos);
+            buckets.incrementAndGet(index(v));
+            count.increment();
+            if (v > max) {
+                max = v; // racy, good enough for a diagnostics maximum
+            }
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        long max() {
+            return max;
+        }
+
+        /**
+         * @param q - quantile in [0, 1]
+         * @return upper bound of the bucket holding the quantile, in nanos
+         */
+        long percentile(double q) {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                total += buckets.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        private static int index(long v) {
+            if (v < SUB_BUCKETS) {
+                return (int) v;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(v);          // >= SUB_BITS
+            int sub = (int) (v >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int magnitude = index / SUB_BUCKETS + SUB_BITS - 1;
+            long sub = index % SUB_BUCKETS;
+            long width = 1L << (magnitude - SUB_BITS);
+            return (1L << magnitude) + (sub + 1) * width - 1;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Process wide prefix index over the player and character names of every
+ * sheet the app has seen: sheets saved or imported in the editor and
+ * characters loaded into the roster. Backs the autocomplete of the
+ * player_name and character_name fields.
+ *
+ * Names are kept in sorted maps keyed by their lower-case form, so a prefix
+ * lookup is one subMap() range walk of O(log n + k) and a new sheet is a
+ * plain insert; nothing is ever rebuilt. A character is identified by its
+ * player and character name, so saving the same character again replaces
+ * the indexed sheet (new class or level) instead of adding a second one.
+ * Keys reuse the name string when it is already lower case, and the sheets
+ * themselves are shared with the roster, not copied.
+ *
+ * The index outlives the session: it is loaded from names.csv.gz in the
+ * autosave directory at startup (in the background) and written back on
+ * exit when it changed, in the gzip roster format of RosterArchive. Sheets
+ * indexed during the session win over older ones read from the file.
+ */
+final class NameIndex {
+
+    private static final NameIndex SHARED = new NameIndex();
+    private static final int BATCH = 4096;
+
+    /* lower-case player name -> that player's characters */
+    private final TreeMap<String, Player> players = new TreeMap<>();
+    /* lower-case character name -> characters of that name, any player */
+    private final TreeMap<String, List<CharacterSheet>> characters = new TreeMap<>();
+    private int size;
+    private boolean dirty; // changed since load() or save()
+
+    /* one player: display name plus characters keyed by lower-case name */
+    private static final class Player {
+        final String name;
+        final TreeMap<String, CharacterSheet> characters = new TreeMap<>();
+
+        Player(String name) {
+            this.name = name;
+        }
+    }
+
+    static NameIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * Adds a sheet, or replaces the indexed sheet of the same player and
+     * character. Sheets without a character name are ignored.
+     *
+     * @param sheet - sheet to index
+     */
+    synchronized void add(CharacterSheet sheet) {
+        put(sheet, true);
+    }
+
+    /* replace false: keep an indexed sheet of the same player and character (loading from file) */
+    private void put(CharacterSheet sheet, boolean replace) {
+        String characterName = sheet.characterName().trim();
+        if (characterName.isEmpty()) {
+            return;
+        }
+        String playerName = sheet.playerName().trim();
+        String playerKey = key(playerName);
+        String characterKey = key(characterName);
+
+        Player player = players.computeIfAbsent(playerKey, k -> new Player(playerName));
+        if (!replace && player.characters.containsKey(characterKey)) {
+            return;
+        }
+        CharacterSheet old = player.characters.put(characterKey, sheet);
+        if (sheet.equals(old)) {
+            return; // saved again unchanged: nothing to persist
+        }
+        dirty |= replace;
+        List<CharacterSheet> sameName = characters.computeIfAbsent(characterKey, k -> new ArrayList<>(1));
+        if (old != null) {
+            sameName.remove(old);
+        } else {
+            size++;
+        }
+        sameName.add(sheet);
+    }
+
+    /**
+     * Adds many sheets, e.g. a whole roster file. The lock is taken per batch
+     * rather than for the whole collection, so autocomplete on the FX thread
+     * never waits for a large roster to finish indexing.
+     *
+     * @param sheets - sheets to index
+     */
+    void addAll(List<CharacterSheet> sheets) {
+        for (int from = 0; from < sheets.size(); from += BATCH) {
+            int to = Math.min(sheets.size(), from + BATCH);
+            synchronized (this) {
+                for (int i = from; i < to; i++) {
+                    add(sheets.get(i));
+                }
+            }
+        }
+    }
+
+    /* ---------- PERSISTENCE ---------- */
+    /**
+     * @return the file the index is kept in between sessions
+     */
+    static Path defaultFile() {
+        return AutosaveJournal.defaultDirectory().resolve("names.csv.gz");
+    }
+
+    /**
+     * Adds the sheets saved by an earlier session. Does nothing if the file
+     * does not exist yet.
+     *
+     * @param file - index file written by save()
+     * @throws IOException if the file cannot be read
+     * @throws InterruptedException if interrupted while reading
+     */
+    void load(Path file) throws IOException, InterruptedException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        RosterArchive.read(file, () -> false, batch -> {
+            synchronized (this) {
+                for (CharacterSheet sheet : batch) {
+                    put(sheet, false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes every indexed sheet if anything changed since the last load or
+     * save. The file is replaced atomically, so a crash keeps the old one.
+     *
+     * @param file - index file
+     * @throws IOException if the file cannot be written
+     * @throws InterruptedException if interrupted while writing
+     */
+    void save(Path file) throws IOException, InterruptedException {
+        List<CharacterSheet> all = new ArrayList<>();
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            for (Player p : players.values()) {
+                all.addAll(p.characters.values());
+            }
+            dirty = false;
+        }
+        Files.createDirectories(file.getParent());
+        try {
+            RosterArchive.write(all, file, () -> false, written -> { }); // replaces the file atomically
+        } catch (IOException e) {
+            synchronized (this) {
+                dirty = true; // try again next time
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of indexed characters
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param prefix - start of a player name, any case
+     * @param limit - maximum number of names returned
+     * @return player names starting with prefix, in alphabetical order
+     */
+    synchronized List<String> completePlayers(String prefix, int limit) {
+        List<String> names = new ArrayList<>(Math.min(limit, 16));
+        for (Player p : range(players, key(prefix)).values()) {
+            if (names.size() == limit) {
+                break;
+            }
+            if (!p.name.isEmpty()) {
+                names.add(p.name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Completes a character name. When player names a known player, only
+     * that player's characters are offered, so an empty prefix lists all
+     * characters of that player. Otherwise an empty prefix matches nothing.
+     *
+     * @param prefix - start of a character name, any case
+     * @param player - player name, may be blank
+     * @param limit - maximum number of sheets returned
+     * @return matching sheets, in alphabetical order of character name
+     */
+    synchronized List<CharacterSheet> completeCharacters(String prefix, String player, int limit) {
+        List<CharacterSheet> matches = new ArrayList<>(Math.min(limit, 16));
+        Player owner = player == null || player.isBlank() ? null : players.get(key(player.trim()));
+        if (owner != null) {
+            for (CharacterSheet sheet : range(owner.characters, key(prefix)).values()) {
+                if (matches.size() == limit) {
+                    break;
+                }
+                matches.add(sheet);
+            }
+            return matches;
+        }
+        if (prefix.isEmpty()) {
+            return matches;
+        }
+        for (List<CharacterSheet> sameName : range(characters, key(prefix)).values()) {
+            for (CharacterSheet sheet : sameName) {
+                if (matches.size() == limit) {
+                    return matches;
+                }
+                matches.add(sheet);
+            }
+        }
+        return matches;
+    }
+
+    /* keys sharing the prefix sort between the prefix itself and prefix + the highest char */
+    private static <V> NavigableMap<String, V> range(TreeMap<String, V> map, String prefix) {
+        return prefix.isEmpty() ? map : map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(); // same instance when already lower case
+    }
+}
@@ -0,0 +1,24 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one timed operation (a UI handler, a table
+ * lookup, a resource listing, an image load). Recorded through
+ * Metrics.start(...) so the same spans feed both JFR and the in-app
+ * histograms. Enable with e.g. -XX:StartFlightRecording.
+ */
+@Name("com.example.Operation")
+@Label("Operation")
+@Category("Character Sheet")
+@Description("A timed operation of the character sheet app")
+@StackTrace(false)
+final class OperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+}
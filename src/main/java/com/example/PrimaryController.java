@@ -5,39 +5,54 @@ package com.example;
  *  
  * 
  */
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.JarURLConnection;
-import java.net.URI;
-import java.net.URL;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.geometry.Side;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Tooltip;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.text.Text;
 import javafx.stage.FileChooser;
+import javafx.stage.Stage;
 import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
 
 public class PrimaryController {
 
@@ -46,13 +61,18 @@ public class PrimaryController {
     @FXML    private ImageView image_display;
     @FXML    private TextField player_name;
     @FXML    private TextField character_name;
+    @FXML    private MenuItem new_window_mi;
     @FXML    private MenuItem save_mi;
     @FXML    private MenuItem load_mi;
+    @FXML    private MenuItem undo_mi;
+    @FXML    private MenuItem redo_mi;
+    @FXML    private MenuItem roster_mi;
+    @FXML    private MenuItem compare_mi;
     @FXML    private MenuItem readme_mi;
     @FXML    private MenuItem close_mi;
     @FXML    private TextField level_display_field;
-    @FXML    private javafx.scene.control.Button up_level_btn;
-    @FXML    private javafx.scene.control.Button down_level_btn;
+    @FXML    private Button up_level_btn;
+    @FXML    private Button down_level_btn;
     @FXML    private ImageView skill_slot_one;
     @FXML    private ImageView skill_slot_two;
     @FXML    private ImageView skill_slot_three;
@@ -62,12 +82,56 @@ public class PrimaryController {
     @FXML    private TextField intelligence_tf;
     @FXML    private TextField luck_tf;
     @FXML    private TextField power_tf;
+    @FXML    private Text derived_stats_text;
+    @FXML    private ProgressBar io_progress;
+    @FXML    private Button cancel_io_btn;
 
-    private int baseStr, baseDex, baseInt, baseLuck, basePower;
+    private ClassRules rules; // cached tables for the selected class
     private static final int UNLOCK_SLOT_2 = 5;
     private static final int UNLOCK_SLOT_3 = 10;
     private static final int UNLOCK_SLOT_4 = 15;
 
+    /* level changes are applied at most once per pulse */
+    private int pendingLevel = 1;
+    private boolean levelDirty;
+    private final Runnable flushLevel = this::flushLevel;
+    // last values written to the attribute fields, so unchanged fields are not rewritten
+    private final int[] shownStats = {-1, -1, -1, -1, -1};
+
+    /* press-and-hold on the level buttons */
+    private static final Duration REPEAT_DELAY = Duration.millis(400);
+    private static final Duration REPEAT_INTERVAL = Duration.millis(50);
+    private Timeline repeat;
+    private int repeatTicks;
+
+    /* sheet files are read and written on this thread, never on the FX thread */
+    private static final ExecutorService IO_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sheet-io");
+        t.setDaemon(true);
+        return t;
+    });
+    private Task<?> ioTask; // running import/export, null when idle
+    private EditHistory history; // undo/redo steps, created once the initial state is shown
+    private boolean restoring; // true while undo/redo writes a state back to the controls
+    private boolean captureQueued;
+    private AutosaveJournal journal; // null while the journal opens, and when autosave is off
+    private boolean editedBeforeAutosave; // a journaled field changed before the journal was open
+    private Stage rosterStage; // roster window, created on first use
+    private final DataWatcher.Listener dataListener = new DataWatcher.Listener() {
+        @Override
+        public void classDataChanged(String className) {
+            reloadClassData(className);
+        }
+
+        @Override
+        public void classListChanged() {
+            reloadClassList();
+        }
+    };
+    private static final int MAX_SUGGESTIONS = 8;
+    private boolean completing; // true while a picked suggestion is written to the fields
+    private Stage compareStage; // class comparison window, created on first use
+
     /* ---------- EXPORT ---------- */
     /**
      * This function is used to save/export a character sheet as a CSV file. All
@@ -77,14 +141,17 @@ public class PrimaryController {
      * class_selection, level_display_field. attribute values are calculated on
      * import
      *
+     * The fields are read on the FX thread; the file is written by a
+     * background task so slow disks never freeze the window. Once written,
+     * the sheet is added to the NameIndex used by autocomplete.
      */
     private void exportCharacterToCsv() {
         /* Player data to be saved (no attribute fields) */
         Map<String, String> data = new LinkedHashMap<>();
-        data.put("player_name", safeText(player_name));
-        data.put("character_name", safeText(character_name));
-        data.put("class_selection", class_selection == null ? "" : String.valueOf(class_selection.getValue()));
-        data.put("level_display_field", safeText(level_display_field));
+        data.put(CharacterSheet.PLAYER_NAME, safeText(player_name));
+        data.put(CharacterSheet.CHARACTER_NAME, safeText(character_name));
+        data.put(CharacterSheet.CLASS_SELECTION, class_selection == null ? "" : String.valueOf(class_selection.getValue()));
+        data.put(CharacterSheet.LEVEL, safeText(level_display_field));
 
         /* Setup FileChooser */
         FileChooser chooser = new FileChooser();
@@ -97,19 +164,20 @@ public class PrimaryController {
             return;
         }
 
-        /* Write CSV */
-        try (BufferedWriter out = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
-            out.write("fxid,value"); // header
-            out.newLine();
-            for (var e : data.entrySet()) {
-                out.write(escapeCsv(e.getKey()));
-                out.write(",");
-                out.write(escapeCsv(e.getValue()));
-                out.newLine();
+        /* Write CSV in the background */
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                updateProgress(-1, 1);
+                try (BufferedWriter out = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
+                    SheetCsv.writeFields(data, out);
+                }
+                updateProgress(1, 1);
+                return null;
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        };
+        task.setOnSucceeded(e -> NameIndex.shared().add(CharacterSheet.fromFields(data)));
+        runIoTask(task);
     }
 
     /**
@@ -123,28 +191,17 @@ public class PrimaryController {
         return tf == null || tf.getText() == null ? "" : tf.getText();
     }
 
-    /**
-     * Helper function: Modify null string to be an empty string. Modify certain
-     * characters in the string to be safe for export to CSV.
-     *
-     * @param s - string to be checked
-     * @return safe string
-     */
-    private String escapeCsv(String s) {
-        if (s == null) {
-            return "";
-        }
-        boolean needQuotes = s.contains(",") || s.contains("\"") || s.contains("\n") || s.contains("\r");
-        String v = s.replace("\"", "\"\"");
-        return needQuotes ? "\"" + v + "\"" : v;
-    }
-
-
     /* ---------- IMPORT ---------- */
     /**
-     * Loads a character CSV exported by this app. Restores only: player_name,
-     * character_name, class_selection, level_display_field. Attributes are NOT
-     * read from file; they are recalculated from class/level.
+     * Loads one or more character CSVs exported by this app. Restores only:
+     * player_name, character_name, class_selection, level_display_field.
+     * Attributes are NOT read from file; they are recalculated from
+     * class/level.
+     *
+     * Files are read by a background task that reports progress per file and
+     * can be cancelled between files. When several files are chosen they are
+     * applied in order, so later files override fields of earlier ones, just
+     * like importing them one after another.
      */
     private void importCharacterFromCsv() {
         /* Setup FileChooser */
@@ -152,127 +209,401 @@ public class PrimaryController {
         chooser.setTitle("Import Character");
         chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
         Window owner = image_display.getScene() != null ? image_display.getScene().getWindow() : null;
-        File file = chooser.showOpenDialog(owner);
-        if (file == null) {
+        List<File> files = chooser.showOpenMultipleDialog(owner);
+        if (files == null || files.isEmpty()) {
             return;
         }
 
         /* Attempt to import */
-        try {
-            var lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Task<Map<String, String>> task = new Task<>() {
+            @Override
+            protected Map<String, String> call() throws Exception {
+                Map<String, String> merged = new LinkedHashMap<>();
+                for (int i = 0; i < files.size(); i++) {
+                    if (isCancelled()) {
+                        return null;
+                    }
+                    updateProgress(i, files.size());
+                    Map<String, String> fields = SheetCsv.readFields(files.get(i).toPath());
+                    NameIndex.shared().add(CharacterSheet.fromFields(fields));
+                    merged.putAll(fields);
+                }
+                updateProgress(files.size(), files.size());
+                return merged;
+            }
+        };
+        // onSucceeded runs on the FX thread: every control is updated in this one batch
+        task.setOnSucceeded(e -> {
+            if (task.getValue() != null) {
+                applyImportedFields(task.getValue());
+            }
+        });
+        runIoTask(task);
+    }
 
-            // skip header if present
-            int start = (!lines.isEmpty() && lines.get(0).toLowerCase().startsWith("fxid")) ? 1 : 0;
+    /**
+     * Applies imported sheet fields to the editor. Keys that are missing
+     * leave their control untouched.
+     *
+     * @param fields - fxid -> value as read by SheetCsv
+     */
+    private void applyImportedFields(Map<String, String> fields) {
+        String importedPlayer = fields.get(CharacterSheet.PLAYER_NAME);
+        String importedCharacter = fields.get(CharacterSheet.CHARACTER_NAME);
+        String importedClass = fields.get(CharacterSheet.CLASS_SELECTION);
+        String importedLevel = fields.get(CharacterSheet.LEVEL);
+
+        // Apply player name
+        if (importedPlayer != null && player_name != null) { // name is not null and component is initialized
+            player_name.setText(importedPlayer);
+        }
 
-            String importedClass = null;
-            String importedLevel = null;
-            String importedPlayer = null;
-            String importedCharacter = null;
+        // Apply character name
+        if (importedCharacter != null && character_name != null) {
+            character_name.setText(importedCharacter);
+        }
 
-            for (int i = start; i < lines.size(); i++) {
-                String line = lines.get(i).trim();
-                if (line.isEmpty()) {
-                    continue; // no error handling
-                }
-                String[] kv = parseCsvLineTwoColumns(line);
-                if (kv == null) {
-                    continue; // no error handling
-                }
-                String key = kv[0];
-                String val = kv[1];
-
-                switch (key) {
-                    case "player_name" ->
-                        importedPlayer = val;
-                    case "character_name" ->
-                        importedCharacter = val;
-                    case "class_selection" ->
-                        importedClass = val;
-                    case "level_display_field" ->
-                        importedLevel = val;
-                    default -> {
-                        /* ignore unknown keys */ } // no error handling
-                }
-            }
+        // Apply class 
+        if (importedClass != null && !importedClass.isBlank() && class_selection != null) {
+            class_selection.setValue(importedClass);
+        }
 
-            // Apply player name
-            if (importedPlayer != null && player_name != null) { // name is not null and component is initialized
-                player_name.setText(importedPlayer);
-            }
+        // Apply level, update skill slot visibility, and compute & update attribute values
+        if (importedLevel != null && !importedLevel.isBlank()) {
+            levelDirty = false; // the imported level replaces any pending change
+            level_display_field.setText(importedLevel);
+            updateSkillSlotVisibilityByLevel();
+            invalidateShownStats();
+            refreshDisplayedStats();
+        }
+    }
 
-            // Apply character name
-            if (importedCharacter != null && character_name != null) {
-                character_name.setText(importedCharacter);
-            }
+    /**
+     * Helper function: runs a file task on the background I/O thread, shows
+     * its progress and enables the cancel button until it finishes. Only one
+     * task runs at a time; save/load are disabled meanwhile.
+     *
+     * @param task - task to run
+     */
+    private void runIoTask(Task<?> task) {
+        ioTask = task;
+        setIoBusy(true);
+        io_progress.progressProperty().bind(task.progressProperty());
+
+        // added handlers run before the task's own onSucceeded/onFailed
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_SUCCEEDED, e -> setIoBusy(false));
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_CANCELLED, e -> setIoBusy(false));
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_FAILED, e -> {
+            setIoBusy(false);
+            task.getException().printStackTrace();
+        });
+        IO_EXECUTOR.execute(task);
+    }
 
-            // Apply class 
-            if (importedClass != null && !importedClass.isBlank() && class_selection != null) {
-                class_selection.setValue(importedClass);
-            }
+    private void setIoBusy(boolean busy) {
+        if (!busy) {
+            io_progress.progressProperty().unbind();
+            ioTask = null;
+        }
+        io_progress.setVisible(busy);
+        cancel_io_btn.setVisible(busy);
+        save_mi.setDisable(busy);
+        load_mi.setDisable(busy);
+    }
 
-            // Apply level, update skill slot visibility, and compute & update attribute values
-            if (importedLevel != null && !importedLevel.isBlank()) {
-                level_display_field.setText(importedLevel);
-                updateSkillSlotVisibilityByLevel();
-                refreshDisplayedStats();
+    /**
+     * Cancels the running import/export, if any.
+     */
+    @FXML
+    private void handleCancelIo() {
+        if (ioTask != null) {
+            ioTask.cancel();
+        }
+    }
+
+    /* ---------- AUTOSAVE ---------- */
+    /**
+     * Helper function: journals every change of the fields written by
+     * exportCharacterToCsv, keyed by the same fxids, so the last state can be
+     * restored after a crash. Installed before the journal is open; see
+     * restoreAutosave for edits made while it opens. Recording only queues
+     * the change; the journal writes on its own thread.
+     */
+    private void installAutosave() {
+        player_name.textProperty().addListener((obs, old, now) -> journalEdit(CharacterSheet.PLAYER_NAME, old, now));
+        character_name.textProperty().addListener((obs, old, now) -> journalEdit(CharacterSheet.CHARACTER_NAME, old, now));
+        class_selection.valueProperty().addListener((obs, old, now) -> journalEdit(CharacterSheet.CLASS_SELECTION, old, now));
+        level_display_field.textProperty().addListener((obs, old, now) -> journalEdit(CharacterSheet.LEVEL, old, now));
+    }
+
+    private void journalEdit(String field, String oldValue, String newValue) {
+        if (journal != null) {
+            journal.record(field, oldValue, newValue);
+        } else {
+            editedBeforeAutosave = true;
+        }
+    }
+
+    /* ---------- UNDO / REDO ---------- */
+    /**
+     * Helper function: starts the undo history at the state now shown and
+     * records a step whenever one of the sheet fields changes. Changes made
+     * by one action (picking a class also resets the level) are captured
+     * together after the action, so they undo as one step.
+     */
+    private void installHistory() {
+        history = new EditHistory(currentSheet(), EditHistory.DEFAULT_MAX_BYTES);
+        player_name.textProperty().addListener((obs, old, now) -> scheduleCapture());
+        character_name.textProperty().addListener((obs, old, now) -> scheduleCapture());
+        class_selection.valueProperty().addListener((obs, old, now) -> scheduleCapture());
+        level_display_field.textProperty().addListener((obs, old, now) -> scheduleCapture());
+        if (undo_mi != null) {
+            undo_mi.setOnAction(e -> handleUndo());
+        }
+        if (redo_mi != null) {
+            redo_mi.setOnAction(e -> handleRedo());
+        }
+    }
+
+    private void scheduleCapture() {
+        if (restoring || captureQueued) {
+            return;
+        }
+        captureQueued = true;
+        Platform.runLater(this::captureHistory); // after the rest of the current action
+    }
+
+    private void captureHistory() {
+        captureQueued = false;
+        if (history.record(currentSheet(), System.nanoTime())) {
+            updateHistoryMenu();
+        }
+    }
+
+    private void handleUndo() {
+        if (captureQueued) {
+            captureHistory(); // an edit still waiting to be recorded is undone first
+        }
+        restoreState(history.undo());
+    }
+
+    private void handleRedo() {
+        restoreState(history.redo());
+    }
+
+    /**
+     * Helper function: shows a state from the history without recording it
+     * as a new step.
+     *
+     * @param state - state to show, null does nothing
+     */
+    private void restoreState(CharacterSheet state) {
+        if (state == null) {
+            return;
+        }
+        restoring = true;
+        try {
+            player_name.setText(state.playerName());
+            character_name.setText(state.characterName());
+            String cls = state.hasClass() ? state.className() : null;
+            if (!Objects.equals(class_selection.getValue(), cls)) {
+                class_selection.setValue(cls); // the class handler resets the level, set below
             }
+            levelDirty = false;
+            level_display_field.setText(Integer.toString(state.level()));
+            updateSkillSlotVisibilityByLevel();
+            invalidateShownStats();
+            refreshDisplayedStats();
+        } finally {
+            restoring = false;
+        }
+        updateHistoryMenu();
+    }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
+    private void updateHistoryMenu() {
+        if (undo_mi != null) {
+            undo_mi.setDisable(!history.canUndo());
+        }
+        if (redo_mi != null) {
+            redo_mi.setDisable(!history.canRedo());
         }
     }
 
     /**
-     * Helper function: This function is used to seperate the key and value
-     * pairs from an imported character sheet. supports strings that contain
-     * quotation marks key - fxid of target component to update value - text/int
-     * value to populate component with
+     * @return the editor fields as a sheet, with the level including any
+     * change not yet shown
+     */
+    private CharacterSheet currentSheet() {
+        String cls = class_selection.getValue();
+        return new CharacterSheet(player_name.getText(), character_name.getText(), cls, currentLevel());
+    }
+
+    /* ---------- NAME COMPLETION ---------- */
+    /**
+     * Helper function: installs autocomplete on the name fields. Player names
+     * complete from every indexed player; character names complete from the
+     * characters of the typed player when it is a known one (so focusing the
+     * empty field lists all of them), otherwise from every character. Picking
+     * a character loads it into the editor, like opening it from the roster.
+     */
+    private void installNameCompletion() {
+        installAutocomplete(player_name,
+                text -> text.isBlank() ? List.of() : NameIndex.shared().completePlayers(text.trim(), MAX_SUGGESTIONS),
+                name -> name,
+                name -> player_name.setText(name));
+        installAutocomplete(character_name,
+                text -> NameIndex.shared().completeCharacters(text.trim(), safeText(player_name), MAX_SUGGESTIONS),
+                sheet -> sheet.characterName() + "  (" + sheet.playerName()
+                        + (sheet.hasClass() ? ", " + sheet.className() : "") + ", level " + sheet.level() + ")",
+                sheet -> applyImportedFields(sheet.toFields()));
+    }
+
+    /**
+     * Helper function: shows a drop-down of suggestions under a text field
+     * while it is focused and updated on every keystroke.
      *
-     * @param line - a line read from a csv save file
-     * @return - String[] of
-     */
-    private String[] parseCsvLineTwoColumns(String line) {
-        // Simple state machine to split first comma not inside quotes
-        boolean inQuotes = false;
-        StringBuilder a = new StringBuilder();
-        StringBuilder b = new StringBuilder();
-        StringBuilder cur = a;
-
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            if (c == '"') {
-                inQuotes = !inQuotes;
-                // Handle doubled quotes inside quotes: "" -> "
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
-                    cur.append('"');
-                    i++;
-                    inQuotes = true; // still inside quotes
-                }
-            } else if (c == ',' && !inQuotes && cur == a) {
-                cur = b; // switch to second column
+     * @param field - text field to complete
+     * @param suggest - field text -> suggestions, called on the FX thread
+     * @param label - text shown for a suggestion
+     * @param pick - applies a chosen suggestion
+     */
+    private <T> void installAutocomplete(TextField field, Function<String, List<T>> suggest,
+            Function<T, String> label, Consumer<T> pick) {
+        ContextMenu menu = new ContextMenu();
+        Runnable update = () -> {
+            if (completing || !field.isFocused()) {
+                menu.hide();
+                return;
+            }
+            String text = field.getText() == null ? "" : field.getText();
+            List<T> matches;
+            try (Metrics.Span span = Metrics.start("autocomplete")) {
+                matches = suggest.apply(text);
+            }
+            // nothing to offer, or the only match is already typed out
+            if (matches.isEmpty() || (matches.size() == 1 && label.apply(matches.get(0)).equalsIgnoreCase(text))) {
+                menu.hide();
+                return;
+            }
+            List<MenuItem> items = new ArrayList<>(matches.size());
+            for (T match : matches) {
+                MenuItem item = new MenuItem(label.apply(match));
+                item.setOnAction(e -> {
+                    completing = true;
+                    try {
+                        pick.accept(match);
+                    } finally {
+                        completing = false;
+                    }
+                    field.end();
+                });
+                items.add(item);
+            }
+            menu.getItems().setAll(items);
+            if (!menu.isShowing()) {
+                menu.show(field, Side.BOTTOM, 0, 0);
+            }
+        };
+        field.textProperty().addListener((obs, old, text) -> update.run());
+        field.focusedProperty().addListener((obs, was, focused) -> {
+            if (focused) {
+                update.run();
             } else {
-                cur.append(c);
+                menu.hide();
+            }
+        });
+    }
+
+    /* ---------- ROSTER ---------- */
+    /**
+     * This function opens the roster window, or brings it to the front if it
+     * is already open. Characters chosen there are loaded into this editor
+     * the same way an imported sheet is.
+     */
+    private void openRoster() {
+        if (rosterStage == null) {
+            try {
+                FXMLLoader loader = new FXMLLoader(App.class.getResource("roster.fxml"));
+                Parent root = loader.load();
+                RosterController roster = loader.getController();
+                roster.setOnOpen(sheet -> applyImportedFields(sheet.toFields()));
+
+                rosterStage = new Stage();
+                rosterStage.setTitle("Roster");
+                rosterStage.initOwner(image_display.getScene().getWindow());
+                rosterStage.setScene(new Scene(root));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
             }
         }
-        String k = a.toString().trim();
-        String v = b.toString().trim();
-        // Strip surrounding quotes if present
-        if (k.startsWith("\"") && k.endsWith("\"") && k.length() >= 2) {
-            k = k.substring(1, k.length() - 1).replace("\"\"", "\"");
+        rosterStage.show();
+        rosterStage.toFront();
+    }
+
+    /**
+     * This function opens the class comparison window. The matrix covers at
+     * least the level currently shown in the editor.
+     */
+    private void openComparison() {
+        if (compareStage == null) {
+            try {
+                FXMLLoader loader = new FXMLLoader(App.class.getResource("comparison.fxml"));
+                Parent root = loader.load();
+                ComparisonController comparison = loader.getController();
+                comparison.compute(parseLevel());
+
+                compareStage = new Stage();
+                compareStage.setTitle("Compare Classes");
+                compareStage.initOwner(image_display.getScene().getWindow());
+                compareStage.setScene(new Scene(root));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
         }
-        if (v.startsWith("\"") && v.endsWith("\"") && v.length() >= 2) {
-            v = v.substring(1, v.length() - 1).replace("\"\"", "\"");
+        compareStage.show();
+        compareStage.toFront();
+    }
+
+    /* ---------- HOT RELOAD ---------- */
+    /**
+     * This function reapplies the class data of the character being edited
+     * after its files changed in the data directory. Other classes are left
+     * alone. The level is kept.
+     *
+     * @param className - class whose files changed
+     */
+    private void reloadClassData(String className) {
+        String current = class_selection.getValue();
+        if (current == null || !current.equalsIgnoreCase(className)) {
+            return;
         }
-        if (k.isEmpty()) {
-            return null;
+        setPortraitForClass(current);
+        loadStatsForClass(current);
+        updateSkillIconsForClass(current);
+        updateSkillSlotVisibilityByLevel();
+    }
+
+    /**
+     * This function replaces the class choices after class_list.txt changed,
+     * keeping the current selection.
+     */
+    private void reloadClassList() {
+        String current = class_selection.getValue();
+        class_selection.getItems().setAll(ResourceManifest.get().classes());
+        if (current != null && !class_selection.getItems().contains(current)) {
+            class_selection.getItems().add(current); // keep the sheet editable
         }
-        return new String[]{k, v};
+        class_selection.setValue(current);
     }
 
     /**
      * Set the portrait image for the given class name. Defaults to
      * blank_image.png if the class name is missing or no matching portrait
-     * exists.
+     * exists. Images come from the shared ImageCache and decode in the
+     * background the first time they are used, at the size of image_display
+     * rather than the size of the source art.
      */
     private void setPortraitForClass(String className) {
         String path;
@@ -284,81 +615,43 @@ public class PrimaryController {
             path = "images/" + slug + "_image.png";
         }
 
-        URL url = App.class.getResource(path);
-        if (url == null) {
+        double width = image_display.getFitWidth();
+        double height = image_display.getFitHeight();
+        double scale = ImageCache.outputScale(image_display);
+        Image image = ImageCache.shared().image(path, width, height, scale);
+        if (image == null) {
             // if the specific portrait doesn't exist, also fallback to blank
-            url = App.class.getResource("images/blank_image.png");
+            image = ImageCache.shared().image("images/blank_image.png", width, height, scale);
         }
 
-        image_display.setImage(url != null ? new Image(url.toString()) : null);
+        image_display.setImage(image);
     }
 
     /**
-     * This function will load base stats for any class using stats csv. If
-     * className is blank or the file is missing, base stats are reset to 0.
-     * Always calls refreshDisplayedStats() at the end to update stats based on
-     * character level.
+     * This function will load base stats for any class. Tables are parsed once
+     * per class by ClassRules and shared, so this only resolves the cached
+     * rules. If className is blank the current rules are cleared. Always calls
+     * refreshDisplayedStats() at the end to update stats based on character
+     * level.
      */
     private void loadStatsForClass(String className) {
-        // reset base values
-        baseStr = baseDex = baseInt = baseLuck = basePower = 0;
-
-        if (className != null && !className.isBlank()) {
-            String slug = className.toLowerCase().replace(' ', '_'); // no spaces in file names
-            String resource = "stats/" + slug + "_stats.csv";
-
-            try (InputStream in = App.class.getResourceAsStream(resource)) {
-                if (in != null) {
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-                        String line = reader.readLine(); // header
-                        while ((line = reader.readLine()) != null) {
-                            String[] parts = line.split(",", -1);
-                            if (parts.length < 2) { // no unexpected elements present
-                                continue;   // no error handling
-                            }
-
-                            // [0] - attribute name
-                            // [1] - attribute value
-                            String attribute = parts[0].trim().toLowerCase();
-                            int value = parseOrZero(parts[1].trim());
-
-                            switch (attribute) {
-                                case "strength" ->
-                                    baseStr = value;
-                                case "dexterity" ->
-                                    baseDex = value;
-                                case "intelligence" ->
-                                    baseInt = value;
-                                case "luck" ->
-                                    baseLuck = value;
-                                case "power" ->
-                                    basePower = value;
-                            }
-                        }
-                    }
-                } else {
-                    // missing file: keep zeros
-                }
-            } catch (Exception e) {
-                // keep zeros on error
-            }
+        try (Metrics.Span span = Metrics.start("loadStatsForClass")) {
+            rules = (className == null || className.isBlank()) ? null : ClassRules.forClass(className);
+            refreshDisplayedStats();
         }
-
-        refreshDisplayedStats();
     }
 
     /* ---------- LEVEL UP/DOWN ACTIONS ---------- */
     /**
      * This function updates character sheet following the user increasing
      * character level by 1. This includes attribute values and skill slot
-     * visibilty.
+     * visibilty, refreshed once per pulse (see changeLevel).
      */
     @FXML
     private void handleLevelUp() {
-        int current = parseLevel();
-        level_display_field.setText(String.valueOf(current + 1));
-        updateSkillSlotVisibilityByLevel();
-        refreshDisplayedStats();
+        try (Metrics.Span span = Metrics.start("handleLevelUp")) {
+            changeLevel(currentLevel() + 1);
+        }
     }
 
     /**
@@ -368,14 +661,99 @@ public class PrimaryController {
      */
     @FXML
     private void handleLevelDown() {
-        int current = parseLevel();
-        if (current > 1) {
-            level_display_field.setText(String.valueOf(current - 1));
+        try (Metrics.Span span = Metrics.start("handleLevelDown")) {
+            int current = currentLevel();
+            if (current > 1) {
+                changeLevel(current - 1);
+            }
+        }
+    }
+
+    /**
+     * Helper function: records a new level and schedules one refresh for the
+     * next pulse. Any number of changes before that pulse (key repeat, fast
+     * clicks, press-and-hold) end in a single recompute and a single write
+     * of the level, skill slots and attribute fields.
+     *
+     * @param level - new level, at least 1
+     */
+    private void changeLevel(int level) {
+        pendingLevel = Math.max(1, level);
+        if (levelDirty) {
+            return;
+        }
+        levelDirty = true;
+        Scene scene = image_display.getScene();
+        if (scene == null || scene.getWindow() == null || !scene.getWindow().isShowing()) {
+            flushLevel(); // no pulses without a showing window
+        } else {
+            Platform.requestNextPulse();
+        }
+    }
+
+    /**
+     * @return the level including a change not yet shown
+     */
+    private int currentLevel() {
+        return levelDirty ? pendingLevel : parseLevel();
+    }
+
+    /* runs before layout on each pulse; applies the pending level, if any */
+    private void flushLevel() {
+        if (!levelDirty) {
+            return;
+        }
+        levelDirty = false;
+        try (Metrics.Span span = Metrics.start("flushLevel")) {
+            level_display_field.setText(Integer.toString(pendingLevel));
             updateSkillSlotVisibilityByLevel();
             refreshDisplayedStats();
         }
     }
 
+    /**
+     * Helper function: makes a level button repeat while held. After
+     * REPEAT_DELAY it steps every REPEAT_INTERVAL, by 1 at first, then by 10
+     * and 100 the longer it is held, so very high levels are reachable. The
+     * click that ends a repeating hold does not step again.
+     *
+     * @param button - level up or down button
+     * @param direction - +1 or -1
+     */
+    private void installAutoRepeat(Button button, int direction) {
+        button.addEventFilter(MouseEvent.MOUSE_PRESSED, e -> {
+            if (e.getButton() != MouseButton.PRIMARY) {
+                return;
+            }
+            stopAutoRepeat();
+            repeatTicks = 0;
+            repeat = new Timeline(new KeyFrame(REPEAT_INTERVAL, t -> {
+                repeatTicks++;
+                int step = repeatTicks < 20 ? 1 : repeatTicks < 60 ? 10 : 100;
+                changeLevel(currentLevel() + direction * step);
+            }));
+            repeat.setDelay(REPEAT_DELAY);
+            repeat.setCycleCount(Animation.INDEFINITE);
+            repeat.play();
+        });
+        button.addEventFilter(MouseEvent.MOUSE_RELEASED, e -> {
+            if (stopAutoRepeat()) {
+                button.disarm(); // the hold already stepped; skip the click's action
+            }
+        });
+        button.addEventFilter(MouseEvent.MOUSE_EXITED, e -> stopAutoRepeat());
+    }
+
+    /* @return true if the repeat had already stepped */
+    private boolean stopAutoRepeat() {
+        if (repeat == null) {
+            return false;
+        }
+        repeat.stop();
+        repeat = null;
+        return repeatTicks > 0;
+    }
+
     /**
      * Helper function perform a try/catch block on parsing an integer from the
      * level display textfield default value returned is 1
@@ -424,13 +802,14 @@ public class PrimaryController {
     /**
      * This function updates all skill slot icons when a new class is selected.
      * Limited to 4 icons even if more exist in folder, sorted by filename.
-     * Calls to update which skills are visible based on character level.
+     * File names come from the build-time ResourceManifest. Calls to update
+     * which skills are visible based on character level.
      *
      * @param className - used to retrieve image files for relevant skill icons
      */
     private void updateSkillIconsForClass(String className) {
         String dir = "skill_icons/" + className.toLowerCase() + "/";
-        List<String> icons = listResourceFiles(dir, ext -> {
+        List<String> icons = ResourceManifest.get().listResourceFiles(dir, ext -> {
             String low = ext.toLowerCase();
             return low.endsWith(".png") || low.endsWith(".jpg") || low.endsWith(".jpeg");
         });
@@ -448,58 +827,10 @@ public class PrimaryController {
         resetSkillSlotsVisibility();
     }
 
-    // List file names inside a resource directory. Works for "file:" and "jar:" URLs.
-    private List<String> listResourceFiles(String resourceDir, java.util.function.Predicate<String> nameFilter) {
-        List<String> names = new ArrayList<>();
-        try {
-            URL url = App.class.getResource(resourceDir);
-            if (url == null) {
-                System.err.println("Resource directory not found: " + resourceDir);
-                return names;
-            }
-            String protocol = url.getProtocol();
-
-            if ("file".equals(protocol)) {
-                // Development / Maven run: directory exists on filesystem
-                URI uri = url.toURI();
-                try (var stream = Files.list(Path.of(uri))) {
-                    stream.filter(Files::isRegularFile)
-                            .map(p -> p.getFileName().toString())
-                            .filter(nameFilter)
-                            .forEach(names::add);
-                }
-            } else if ("jar".equals(protocol)) {
-                // Running from packaged JAR
-                JarURLConnection conn = (JarURLConnection) url.openConnection();
-                try (JarFile jar = conn.getJarFile()) {
-                    String prefix = conn.getEntryName();
-                    Enumeration<JarEntry> entries = jar.entries();
-                    while (entries.hasMoreElements()) {
-                        JarEntry e = entries.nextElement();
-                        String name = e.getName();
-                        if (!e.isDirectory() && name.startsWith(prefix)) {
-                            String justName = name.substring(prefix.length());
-                            // only direct children (avoid subfolders)
-                            if (!justName.isEmpty() && !justName.contains("/")) {
-                                if (nameFilter.test(justName)) {
-                                    names.add(justName);
-                                }
-                            }
-                        }
-                    }
-                }
-            } else {
-                System.err.println("Unsupported protocol for listing: " + protocol + " (" + resourceDir + ")");
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-        return names;
-    }
-
     /**
      * Helper function This function sets an ImageView image and install a
-     * tooltip showing the file's base name
+     * tooltip showing the file's base name. Both the image and the tooltip
+     * are shared through ImageCache.
      *
      * @param slot - the ImageView to be updated
      * @param resourcePath - the path of the image to put into the imageview
@@ -507,129 +838,86 @@ public class PrimaryController {
     private void setSkillIcon(ImageView slot, String resourcePath) {
         if (resourcePath == null) {
             slot.setImage(null); // clear existing tooltip
+            slot.setViewport(null);
             return;
         }
 
-        URL url = App.class.getResource(resourcePath);
-        if (url != null) {
-            slot.setImage(new Image(url.toString()));
-            Tooltip.install(slot, new Tooltip(prettyFileName(resourcePath)));
-        } else {
-            slot.setImage(null);
+        // packed icons are a viewport into the shared atlas page; a data directory copy wins
+        IconAtlas.Region region = DataFiles.overridden(resourcePath) ? null : IconAtlas.get().region(resourcePath);
+        if (region != null) {
+            slot.setImage(region.page());
+            slot.setViewport(region.viewport());
+            Tooltip.install(slot, ImageCache.shared().tooltip(resourcePath));
+            return;
         }
-    }
 
-    /**
-     * Helper function This function takes the name of the image file and uses
-     * it to create a tooltip that displays the name when the user hovers over
-     * that skill slot image. String is modified from example_name to Example
-     * Name.
-     *
-     * @param resourcePath
-     * @return
-     */
-    private String prettyFileName(String resourcePath) {
-        // substitute regex's with spaces
-        int slash = resourcePath.lastIndexOf('/');
-        String file = (slash >= 0) ? resourcePath.substring(slash + 1) : resourcePath;
-        int dot = file.lastIndexOf('.');
-        if (dot > 0) {
-            file = file.substring(0, dot);
-        }
-        file = file.replace('_', ' ').replace('-', ' ');
-        // split string at spaces
-        String[] parts = file.split("\\s+");
-        StringBuilder sb = new StringBuilder();
-        for (String p : parts) {
-            if (p.isEmpty()) {
-                continue;
-            }
-            sb.append(Character.toUpperCase(p.charAt(0))); // capitalize first char of each word
-            if (p.length() > 1) {
-                sb.append(p.substring(1));
-            }
-            sb.append(' ');
+        slot.setViewport(null);
+        Image image = ImageCache.shared().image(resourcePath, slot.getFitWidth(), slot.getFitHeight(), ImageCache.outputScale(slot));
+        if (image != null) {
+            slot.setImage(image);
+            Tooltip.install(slot, ImageCache.shared().tooltip(resourcePath));
+        } else {
+            slot.setImage(null);
         }
-        return sb.toString().trim();
     }
 
     /**
-     * This function reads the file 'class_list.txt' which contains the list of
-     * available classes to be used as selectable options for character
-     * creation.
+     * This function fills the class selection with the list of available
+     * classes from class_list.txt. The build-time manifest already holds the
+     * list, so the file is only read when the manifest is missing.
      */
     private void loadClassList() {
-        try (InputStream in = App.class.getResourceAsStream("class_list.txt")) {
-            if (in == null) {
-                System.err.println("class_list.txt not found in resources");
-                return;
-            }
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String className = line.trim();
-                    if (!className.isEmpty()) {
-                        class_selection.getItems().add(className);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        class_selection.getItems().addAll(ResourceManifest.get().classes());
     }
 
     /**
-     * This function is used to read a character level bonuses csv and calculate
-     * the total value of each attribute. Then the components that display that
-     * value are updated with the calculated value. Character class base values
-     * for attributes are included in the final sum.
+     * This function looks up the total value of each attribute for the
+     * selected class at the current level. Then the components that display
+     * that value are updated with the calculated value. Totals come from the
+     * precomputed ClassRules tables, class base values included.
      */
     private void refreshDisplayedStats() {
         String cls = class_selection.getValue();
         if (cls == null || cls.isBlank()) {
             return;
         }
-
-        int lvl = Math.max(1, parseLevel());
-        int sumStr = 0, sumDex = 0, sumInt = 0, sumLuck = 0, sumPower = 0;
-        String path = "/com/level bonuses/" + cls.toLowerCase() + "_level_bonuses.csv"; // ex resources/com/level bonuses/bard_level_bonuses.csv
-
-        /* Read in attribute level bonuses up to the character current level from class level bonuses csv & sum values */
-        try (InputStream in = PrimaryController.class.getResourceAsStream(path)) {
-            if (in != null) {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(in))) {
-                    String line = br.readLine(); // header, skip to next line
-                    while ((line = br.readLine()) != null) {
-                        String[] parts = line.split(",", -1);
-                        // verify expected number of elements(6) (no error handling)
-                        if (parts.length < 6) {
-                            continue;
-                        }
-
-                        // this level grants 'class' certain bonuses to attributes
-                        int levelVal = Integer.parseInt(parts[0].trim());
-                        if (levelVal <= lvl) {
-                            sumStr += parseOrZero(parts[1]);
-                            sumDex += parseOrZero(parts[2]);
-                            sumInt += parseOrZero(parts[3]);
-                            sumLuck += parseOrZero(parts[4]);
-                            sumPower += parseOrZero(parts[5]);
-                        }
-                    }
-                }
+        try (Metrics.Span span = Metrics.start("refreshDisplayedStats")) {
+            if (rules == null || !rules.className().equals(cls)) {
+                rules = ClassRules.forClass(cls);
             }
-        } catch (Exception e) {
-            // swallow or log minimally if you prefer
+
+            int lvl = Math.max(1, parseLevel());
+
+            // update component values with calculated character stats
+            setStatsFields(
+                    rules.stat(ClassRules.STRENGTH, lvl),
+                    rules.stat(ClassRules.DEXTERITY, lvl),
+                    rules.stat(ClassRules.INTELLIGENCE, lvl),
+                    rules.stat(ClassRules.LUCK, lvl),
+                    rules.stat(ClassRules.POWER, lvl)
+            );
+            setDerivedStats(rules, lvl);
         }
+    }
 
-        // update component values with calculated character stats
-        setStatsFields(
-                baseStr + sumStr,
-                baseDex + sumDex,
-                baseInt + sumInt,
-                baseLuck + sumLuck,
-                basePower + sumPower
-        );
+    /**
+     * Helper function: shows the derived stats of the class (see
+     * StatFormula) as "name value" pairs, wrapped below the attributes.
+     *
+     * @param rules - rules of the selected class
+     * @param lvl - displayed level
+     */
+    private void setDerivedStats(ClassRules rules, int lvl) {
+        StringBuilder text = new StringBuilder();
+        for (int f = 0; f < rules.derivedCount(); f++) {
+            if (f > 0) {
+                text.append(",  ");
+            }
+            text.append(rules.derivedName(f).replace('_', ' ')).append(' ').append(rules.derived(f, lvl));
+        }
+        if (!derived_stats_text.getText().contentEquals(text)) {
+            derived_stats_text.setText(text.toString());
+        }
     }
 
     /**
@@ -643,25 +931,27 @@ public class PrimaryController {
      * @param p - power value
      */
     private void setStatsFields(int s, int d, int i, int l, int p) {
-        strength_tf.setText(Integer.toString(s));
-        dexterity_tf.setText(Integer.toString(d));
-        intelligence_tf.setText(Integer.toString(i));
-        luck_tf.setText(Integer.toString(l));
-        power_tf.setText(Integer.toString(p));
+        setStatField(strength_tf, ClassRules.STRENGTH, s);
+        setStatField(dexterity_tf, ClassRules.DEXTERITY, d);
+        setStatField(intelligence_tf, ClassRules.INTELLIGENCE, i);
+        setStatField(luck_tf, ClassRules.LUCK, l);
+        setStatField(power_tf, ClassRules.POWER, p);
     }
 
-    /**
-     * Helper function This function will perform a try/catch block around a
-     * parseInt operation
-     *
-     * @param s - string to convert to int
-     * @return - integer value represented by string
+    /* the next refresh writes every attribute field again, e.g. after an import or undo */
+    private void invalidateShownStats() {
+        Arrays.fill(shownStats, -1);
+    }
+
+    /*
+     * writes one attribute field, skipping it when the value did not change;
+     * the fields are read only, so shownStats is what they show unless
+     * invalidateShownStats() was called
      */
-    private int parseOrZero(String s) {
-        try {
-            return Integer.parseInt(s.trim());
-        } catch (Exception e) {
-            return 0;
+    private void setStatField(TextField field, int attribute, int value) {
+        if (shownStats[attribute] != value) {
+            shownStats[attribute] = value;
+            field.setText(Integer.toString(value));
         }
     }
 
@@ -672,6 +962,31 @@ public class PrimaryController {
             level_display_field.setText("1");
         }
 
+        // typing a level and pressing Enter (or leaving the field) jumps straight to it
+        level_display_field.setOnAction(e -> changeLevel(parseLevel()));
+        level_display_field.focusedProperty().addListener((obs, was, focused) -> {
+            if (!focused && !levelDirty && parseLevel() != pendingLevel) {
+                changeLevel(parseLevel());
+            }
+        });
+        installAutoRepeat(up_level_btn, 1);
+        installAutoRepeat(down_level_btn, -1);
+        // pending level changes are applied once per pulse, before layout
+        image_display.sceneProperty().addListener((obs, old, scene) -> {
+            if (old != null) {
+                old.removePreLayoutPulseListener(flushLevel);
+            }
+            if (scene != null) {
+                scene.addPreLayoutPulseListener(flushLevel);
+                // a closed window stops receiving reloads so it can be collected
+                scene.windowProperty().addListener((o, was, window) -> {
+                    if (window != null) {
+                        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> DataWatcher.removeListener(dataListener));
+                    }
+                });
+            }
+        });
+
         if (save_mi != null) {
             save_mi.setOnAction(e -> exportCharacterToCsv());
         }
@@ -679,8 +994,21 @@ public class PrimaryController {
             load_mi.setOnAction(e -> importCharacterFromCsv());
         }
 
+        if (roster_mi != null) {
+            roster_mi.setOnAction(e -> openRoster());
+        }
+
+        if (compare_mi != null) {
+            compare_mi.setOnAction(e -> openComparison());
+        }
+
+        if (new_window_mi != null) {
+            new_window_mi.setOnAction(e -> App.openSheetWindow());
+        }
+
         if (close_mi != null) {
-            close_mi.setOnAction(e -> Platform.exit());
+            // closes this sheet; the app exits with the last one
+            close_mi.setOnAction(e -> image_display.getScene().getWindow().hide());
         }
 
         if (readme_mi != null) {
@@ -697,34 +1025,80 @@ public class PrimaryController {
             loadClassList();
         }
 
+        installNameCompletion();
+
+        DataWatcher.addListener(dataListener);
+
         class_selection.setOnAction(event -> {
-            String choice = class_selection.getValue();
+            try (Metrics.Span span = Metrics.start("class_selection")) {
+                String choice = class_selection.getValue();
 
-            // Portrait (always show something)
-            setPortraitForClass(choice); // falls back to blank_image.png if null/missing
+                // Portrait (always show something)
+                setPortraitForClass(choice); // falls back to blank_image.png if null/missing
 
-            // Base stats for the class (generalized)
-            loadStatsForClass(choice);
+                // Base stats for the class (generalized)
+                loadStatsForClass(choice);
 
-            // Skill icons for the class (already generalized by folder)
-            if (choice != null && !choice.isBlank()) {
-                updateSkillIconsForClass(choice);
-            } else {
-                // if no class, clear/hide skill slots as a safe default
-                setSkillIcon(skill_slot_one, null);
-                setSkillIcon(skill_slot_two, null);
-                setSkillIcon(skill_slot_three, null);
-                setSkillIcon(skill_slot_four, null);
+                // Skill icons for the class (already generalized by folder)
+                if (choice != null && !choice.isBlank()) {
+                    updateSkillIconsForClass(choice);
+                } else {
+                    // if no class, clear/hide skill slots as a safe default
+                    setSkillIcon(skill_slot_one, null);
+                    setSkillIcon(skill_slot_two, null);
+                    setSkillIcon(skill_slot_three, null);
+                    setSkillIcon(skill_slot_four, null);
+                    resetSkillSlotsVisibility();
+                }
+
+                // Reset level and enforce unlock rules
+                levelDirty = false;
+                level_display_field.setText("1");
                 resetSkillSlotsVisibility();
+                updateSkillSlotVisibilityByLevel();
+
+                // No extra refresh needed here: loadStatsCsv() already called refreshDisplayedStats().
             }
+        });
 
-            // Reset level and enforce unlock rules
-            level_display_field.setText("1");
-            resetSkillSlotsVisibility();
-            updateSkillSlotVisibilityByLevel();
+        installHistory();
 
-            // No extra refresh needed here: loadStatsCsv() already called refreshDisplayedStats().
-        });
+        // the journal opens in the background; restore the last session (crashed or not) once it is ready
+        CompletableFuture<AutosaveJournal> autosave = App.claimAutosave();
+        if (autosave != null) {
+            installAutosave();
+            autosave.thenAccept(opened -> Platform.runLater(() -> {
+                if (opened != null) {
+                    restoreAutosave(opened);
+                }
+            }));
+        }
+    }
 
+    /**
+     * Helper function: shows the fields recovered by the journal, then
+     * journals every further edit. If nothing was edited yet, the recovered
+     * state is where undo history begins, as if it had been there from the
+     * start. If the user already started typing while the journal opened,
+     * the recovered session is not restored over their edits; the sheet as
+     * shown is journaled instead.
+     *
+     * @param opened - the session's autosave journal
+     */
+    private void restoreAutosave(AutosaveJournal opened) {
+        Map<String, String> recovered = opened.recovered();
+        if (editedBeforeAutosave) {
+            currentSheet().toFields().forEach((field, value) -> opened.record(field, recovered.get(field), value));
+        } else if (!recovered.isEmpty()) {
+            boolean untouched = !history.canUndo() && !captureQueued;
+            applyImportedFields(recovered); // not journaled: journal is still null
+            if (untouched) {
+                Platform.runLater(() -> { // after the captures the restore queued
+                    history = new EditHistory(currentSheet(), EditHistory.DEFAULT_MAX_BYTES);
+                    updateHistoryMenu();
+                });
+            }
+        }
+        journal = opened;
     }
 }
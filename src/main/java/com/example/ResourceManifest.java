@@ -0,0 +1,232 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * In-memory index of the bundled resources, read once from
+ * resource_manifest.txt. The manifest is written at build time by
+ * src/build/java/ResourceManifestGenerator.java and lists the classes of
+ * class_list.txt and every resource file. Directory listings become a map
+ * lookup instead of a directory or JAR scan.
+ *
+ * When the manifest is missing (e.g. running from an IDE that skipped the
+ * Maven build step) listing falls back to scanning the resource directory.
+ */
+final class ResourceManifest {
+
+    private static final String MANIFEST = "resource_manifest.txt";
+    private static final String BASE = "com/example/"; // package of App, where relative paths resolve
+
+    private final boolean present;
+    private final List<String> classes;
+    // directory (relative to com/example, ending in '/') -> sorted file names directly inside it
+    private final Map<String, List<String>> directories;
+    // class_list.txt of the data directory, read on first use; null until then
+    private volatile List<String> overrideClasses;
+
+    private ResourceManifest(boolean present, List<String> classes, Map<String, List<String>> directories) {
+        this.present = present;
+        this.classes = classes;
+        this.directories = directories;
+    }
+
+    /* lazily loaded on first use, then shared */
+    private static final class Holder {
+        static final ResourceManifest INSTANCE = load();
+    }
+
+    static ResourceManifest get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @return true if the build generated a manifest
+     */
+    boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * @return classes in class_list.txt order (read from class_list.txt itself
+     * when there is no manifest or the data directory has its own copy)
+     */
+    List<String> classes() {
+        if (!DataFiles.overridden("class_list.txt")) {
+            return classes;
+        }
+        List<String> override = overrideClasses;
+        if (override == null) {
+            override = readClassList();
+            overrideClasses = override;
+        }
+        return override;
+    }
+
+    /**
+     * Forgets the class list read from the data directory, so the next
+     * classes() call reads class_list.txt again.
+     */
+    void reloadClasses() {
+        overrideClasses = null;
+    }
+
+    /**
+     * List file names inside a resource directory. A copy of the directory in
+     * the data directory wins; otherwise uses the manifest when available,
+     * or scans the directory ("file:" and "jar:" URLs).
+     *
+     * @param resourceDir - directory relative to com/example, ending in '/'
+     * @param nameFilter - accepts the file names to return
+     * @return modifiable list of matching names, sorted when from the manifest
+     */
+    List<String> listResourceFiles(String resourceDir, Predicate<String> nameFilter) {
+        try (Metrics.Span span = Metrics.start("listResourceFiles")) {
+            Path override = DataFiles.directory(resourceDir);
+            if (override != null) {
+                try {
+                    return scanDirectory(override.toUri().toURL(), nameFilter);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            if (!present) {
+                URL url = ResourceManifest.class.getResource(resourceDir);
+                if (url == null) {
+                    System.err.println("Resource directory not found: " + resourceDir);
+                    return new ArrayList<>();
+                }
+                return scanDirectory(url, nameFilter);
+            }
+            List<String> names = new ArrayList<>();
+            for (String name : directories.getOrDefault(resourceDir, List.of())) {
+                if (nameFilter.test(name)) {
+                    names.add(name);
+                }
+            }
+            return names;
+        }
+    }
+
+    // List file names inside a resource directory. Works for "file:" and "jar:" URLs.
+    static List<String> scanDirectory(URL url, Predicate<String> nameFilter) {
+        List<String> names = new ArrayList<>();
+        try {
+            String protocol = url.getProtocol();
+
+            if ("file".equals(protocol)) {
+                // Development / Maven run: directory exists on filesystem
+                URI uri = url.toURI();
+                try (var stream = Files.list(Path.of(uri))) {
+                    stream.filter(Files::isRegularFile)
+                            .map(p -> p.getFileName().toString())
+                            .filter(nameFilter)
+                            .forEach(names::add);
+                }
+            } else if ("jar".equals(protocol)) {
+                // Running from packaged JAR
+                JarURLConnection conn = (JarURLConnection) url.openConnection();
+                conn.setUseCaches(false); // we close the JarFile, so it must not be the shared cached one
+                try (JarFile jar = conn.getJarFile()) {
+                    String prefix = conn.getEntryName();
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        JarEntry e = entries.nextElement();
+                        String name = e.getName();
+                        if (!e.isDirectory() && name.startsWith(prefix)) {
+                            String justName = name.substring(prefix.length());
+                            // only direct children (avoid subfolders)
+                            if (!justName.isEmpty() && !justName.contains("/")) {
+                                if (nameFilter.test(justName)) {
+                                    names.add(justName);
+                                }
+                            }
+                        }
+                    }
+                }
+            } else {
+                System.err.println("Unsupported protocol for listing: " + protocol + " (" + url + ")");
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        return names;
+    }
+
+    /* ---------- PARSING ---------- */
+    private static ResourceManifest load() {
+        try (InputStream in = ResourceManifest.class.getResourceAsStream(MANIFEST)) {
+            if (in == null) {
+                return new ResourceManifest(false, readClassList(), Map.of());
+            }
+            List<String> classes = new ArrayList<>();
+            Map<String, List<String>> directories = new HashMap<>();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("class=")) {
+                    classes.add(line.substring(6));
+                } else if (line.startsWith("file=")) {
+                    String path = line.substring(5);
+                    // only resources under com/example are addressed by relative path
+                    if (!path.startsWith(BASE)) {
+                        continue;
+                    }
+                    path = path.substring(BASE.length());
+                    int slash = path.lastIndexOf('/');
+                    String dir = path.substring(0, slash + 1);
+                    directories.computeIfAbsent(dir, d -> new ArrayList<>()).add(path.substring(slash + 1));
+                }
+            }
+
+            // freeze; file names were written sorted
+            directories.replaceAll((d, names) -> List.copyOf(names));
+            return new ResourceManifest(true, Collections.unmodifiableList(classes), Map.copyOf(directories));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResourceManifest(false, readClassList(), Map.of());
+        }
+    }
+
+    /**
+     * This function reads the file 'class_list.txt' which contains the list of
+     * available classes, one per line.
+     */
+    private static List<String> readClassList() {
+        List<String> classes = new ArrayList<>();
+        try (InputStream in = DataFiles.open("class_list.txt")) {
+            if (in == null) {
+                System.err.println("class_list.txt not found in resources");
+                return classes;
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String className = line.trim();
+                if (!className.isEmpty()) {
+                    classes.add(className);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return Collections.unmodifiableList(classes);
+    }
+}
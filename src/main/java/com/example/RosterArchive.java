@@ -0,0 +1,407 @@
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A whole roster in one compressed file, for moving a campaign between
+ * machines. Two formats, chosen by file name:
+ *
+ * - .zip: one entry per character, each a sheet CSV (see SheetCsv) exactly
+ *   like the editor exports, so the archive can also be unpacked by hand.
+ * - .csv.gz / .gz: one gzip stream of a single CSV; the header row holds the
+ *   editor fxids and every following row is one character.
+ *
+ * Import runs as a pipeline of three stages joined by bounded queues: a
+ * reader thread decompresses and cuts the archive into raw sheets, a parser
+ * thread turns them into CharacterSheets, and the calling thread hands them
+ * on in batches. Export is the same in reverse (format, then compress and
+ * write). A full queue stops the stage in front of it, so no more than
+ * QUEUE_CAPACITY sheets are in flight however large the roster is.
+ */
+final class RosterArchive {
+
+    static final int QUEUE_CAPACITY = 256;
+    static final int BATCH_SIZE = 1024;
+
+    /* larger entries are not sheets; refusing them keeps memory bounded */
+    static final int MAX_ENTRY_BYTES = 1 << 20;
+
+    /* column order of the gzip format, same keys as a sheet CSV */
+    private static final String[] COLUMNS = {
+        CharacterSheet.PLAYER_NAME, CharacterSheet.CHARACTER_NAME, CharacterSheet.CLASS_SELECTION, CharacterSheet.LEVEL
+    };
+
+    /* marks the end of a queue */
+    private static final Object END = new Object();
+
+    private RosterArchive() {
+    }
+
+    /**
+     * @param file - archive path
+     * @return true for the gzip format, false for zip
+     */
+    static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".gz");
+    }
+
+    /* ---------- EXPORT ---------- */
+    /**
+     * Writes every sheet to an archive, replacing the file. The archive is
+     * written to a temporary file next to it and moved over the old one
+     * only when complete, so a failed or cancelled export leaves the old
+     * file as it was.
+     *
+     * @param sheets - characters to write, in order
+     * @param file - .zip or .gz file to write
+     * @param cancelled - polled between sheets; true stops the export
+     * @param progress - called with the number of sheets written so far
+     * @return number of sheets written, 0 if cancelled
+     * @throws IOException if the archive cannot be written
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    static int write(List<CharacterSheet> sheets, Path file, BooleanSupplier cancelled, Consumer<Integer> progress)
+            throws IOException, InterruptedException {
+        boolean gzip = isGzip(file);
+        BlockingQueue<Object> formatted = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread formatter = stage("archive-format", failure, formatted, () -> {
+            StringBuilder row = new StringBuilder(128);
+            for (int i = 0; i < sheets.size(); i++) {
+                CharacterSheet sheet = sheets.get(i);
+                formatted.put(gzip ? csvRow(sheet, row) : new Entry(entryName(i, sheet), sheetBytes(sheet)));
+            }
+        });
+
+        Path target = file.toAbsolutePath();
+        // same directory, so the move is atomic; keeps the file name, whose suffix picks the format
+        Path tmp = Files.createTempFile(target.getParent(), "tmp-", "-" + target.getFileName());
+        boolean replaced = false;
+        int written = 0;
+        try (Metrics.Span span = Metrics.start("archive.export")) {
+            written = writeTo(tmp, gzip, formatter, formatted, failure, cancelled, progress);
+            rethrow(failure);
+            if (cancelled.getAsBoolean()) {
+                return 0;
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            replaced = true;
+        } finally {
+            if (!replaced) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        return written;
+    }
+
+    /* the writing stage of write(): compresses what the formatter queues into one file */
+    private static int writeTo(Path file, boolean gzip, Thread formatter, BlockingQueue<Object> formatted,
+            AtomicReference<Throwable> failure, BooleanSupplier cancelled, Consumer<Integer> progress)
+            throws IOException, InterruptedException {
+        int written = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            formatter.start();
+            if (gzip) {
+                try (Writer w = new OutputStreamWriter(new GZIPOutputStream(out, 1 << 16), StandardCharsets.UTF_8)) {
+                    w.write(String.join(",", COLUMNS));
+                    w.write('\n');
+                    for (Object item; (item = next(formatted, failure, cancelled)) != END; ) {
+                        w.write((String) item);
+                        progress(++written, progress);
+                    }
+                }
+            } else {
+                try (ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8)) {
+                    for (Object item; (item = next(formatted, failure, cancelled)) != END; ) {
+                        Entry entry = (Entry) item;
+                        zip.putNextEntry(new ZipEntry(entry.name()));
+                        zip.write(entry.bytes());
+                        zip.closeEntry();
+                        progress(++written, progress);
+                    }
+                }
+            }
+        } finally {
+            stop(formatter);
+        }
+        return written;
+    }
+
+    /* one zip entry: name and sheet CSV bytes */
+    private record Entry(String name, byte[] bytes) {
+    }
+
+    /* numbered so equal names never collide, then readable names for unpacking by hand */
+    private static String entryName(int index, CharacterSheet sheet) {
+        return String.format("%06d_%s_%s.csv", index, safeName(sheet.playerName()), safeName(sheet.characterName()));
+    }
+
+    private static String safeName(String s) {
+        StringBuilder sb = new StringBuilder(Math.min(s.length(), 40));
+        for (int i = 0; i < s.length() && sb.length() < 40; i++) {
+            char c = s.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) || c == '-' ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private static byte[] sheetBytes(CharacterSheet sheet) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (Writer w = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            SheetCsv.writeFields(sheet.toFields(), w);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String csvRow(CharacterSheet sheet, StringBuilder row) throws IOException {
+        row.setLength(0);
+        Map<String, String> fields = sheet.toFields();
+        for (int c = 0; c < COLUMNS.length; c++) {
+            if (c > 0) {
+                row.append(',');
+            }
+            CsvCodec.writeField(row, fields.get(COLUMNS[c]));
+        }
+        return row.append('\n').toString();
+    }
+
+    /* ---------- IMPORT ---------- */
+    /**
+     * Reads every sheet of an archive. Sheets are built with
+     * CharacterSheet.fromFields from the same fxid keys the editor imports,
+     * so attributes are derived from class and level like importing a
+     * single sheet; unknown keys are ignored.
+     *
+     * @param file - .zip or .gz archive
+     * @param cancelled - polled between sheets; true stops the import
+     * @param sink - receives the sheets in archive order, BATCH_SIZE at a
+     *        time, on the calling thread
+     * @return number of sheets read
+     * @throws IOException if the archive cannot be read or is malformed
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    static int read(Path file, BooleanSupplier cancelled, Consumer<List<CharacterSheet>> sink)
+            throws IOException, InterruptedException {
+        boolean gzip = isGzip(file);
+        BlockingQueue<Object> raw = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Object> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread reader = stage("archive-read", failure, raw, () -> {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+                if (gzip) {
+                    readRows(new GZIPInputStream(in, 1 << 16), raw);
+                } else {
+                    readEntries(new ZipInputStream(in, StandardCharsets.UTF_8), raw);
+                }
+            }
+        });
+        Thread parser = stage("archive-parse", failure, parsed, () -> {
+            for (Object item; (item = next(raw, failure, () -> false)) != END; ) {
+                Map<String, String> fields = item instanceof byte[] bytes
+                        ? SheetCsv.readFields(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8))
+                        : castFields(item);
+                parsed.put(CharacterSheet.fromFields(fields));
+            }
+        });
+
+        int count = 0;
+        try (Metrics.Span span = Metrics.start("archive.import")) {
+            reader.start();
+            parser.start();
+            List<CharacterSheet> batch = new ArrayList<>(BATCH_SIZE);
+            for (Object item; (item = next(parsed, failure, cancelled)) != END; ) {
+                batch.add((CharacterSheet) item);
+                count++;
+                if (batch.size() == BATCH_SIZE) {
+                    sink.accept(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty() && failure.get() == null && !cancelled.getAsBoolean()) {
+                sink.accept(batch);
+            }
+        } finally {
+            stop(reader);
+            stop(parser);
+        }
+        rethrow(failure);
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> castFields(Object item) {
+        return (Map<String, String>) item;
+    }
+
+    /* zip: each .csv entry's bytes; directories and other files are skipped */
+    private static void readEntries(ZipInputStream zip, BlockingQueue<Object> out) throws IOException, InterruptedException {
+        byte[] buffer = new byte[8192];
+        for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+            if (entry.isDirectory() || !entry.getName().toLowerCase().endsWith(".csv")) {
+                continue;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            for (int n; (n = zip.read(buffer)) > 0; ) {
+                bytes.write(buffer, 0, n);
+                if (bytes.size() > MAX_ENTRY_BYTES) {
+                    throw new IOException("Archive entry too large: " + entry.getName());
+                }
+            }
+            out.put(bytes.toByteArray());
+        }
+    }
+
+    /* gzip: header row names the columns, every further row becomes a field map */
+    private static void readRows(InputStream in, BlockingQueue<Object> out) throws IOException {
+        try (Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            new CsvCodec().parse(r, new RowCollector(out));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /* collects rows of the gzip format; the first record is the header */
+    private static final class RowCollector implements CsvCodec.RecordHandler {
+
+        private final BlockingQueue<Object> out;
+        private final List<String> header = new ArrayList<>();
+        private boolean headerPending = true;
+        private Map<String, String> row = new HashMap<>();
+
+        RowCollector(BlockingQueue<Object> out) {
+            this.out = out;
+        }
+
+        @Override
+        public void field(int column, CharSequence value) {
+            if (headerPending) {
+                header.add(value.toString());
+            } else if (column < header.size()) {
+                row.put(header.get(column), value.toString());
+            }
+        }
+
+        @Override
+        public void endRecord(int columns) {
+            if (headerPending) {
+                headerPending = false;
+                return;
+            }
+            try {
+                out.put(row);
+            } catch (InterruptedException e) {
+                // the handler cannot throw InterruptedException; keep the flag for stage()
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException());
+            }
+            row = new HashMap<>();
+        }
+    }
+
+    /* ---------- PIPELINE ---------- */
+    /* a unit of work of a stage thread */
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    /**
+     * Helper function: a daemon thread that runs work, records the first
+     * failure and always ends its output queue.
+     */
+    private static Thread stage(String name, AtomicReference<Throwable> failure, BlockingQueue<Object> out, Work work) {
+        Thread t = new Thread(() -> {
+            try {
+                work.run();
+            } catch (InterruptedException e) {
+                return; // stopped by the consumer, nobody waits for END
+            } catch (Throwable e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return; // an I/O call aborted by the same stop
+                }
+                failure.compareAndSet(null, e);
+            }
+            try {
+                out.put(END);
+            } catch (InterruptedException e) {
+                // stopped while the consumer was gone
+            }
+        }, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Helper function: takes the next item of a queue, or END once a stage
+     * failed or the run was cancelled.
+     */
+    private static Object next(BlockingQueue<Object> queue, AtomicReference<Throwable> failure, BooleanSupplier cancelled)
+            throws InterruptedException {
+        while (true) {
+            if (failure.get() != null || cancelled.getAsBoolean()) {
+                return END;
+            }
+            Object item = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (item != null) {
+                return item;
+            }
+        }
+    }
+
+    private static void progress(int count, Consumer<Integer> progress) {
+        if ((count & 0xFF) == 0) {
+            progress.accept(count);
+        }
+    }
+
+    private static void stop(Thread stage) throws InterruptedException {
+        stage.interrupt();
+        stage.join();
+    }
+
+    private static void rethrow(AtomicReference<Throwable> failure) throws IOException {
+        Throwable t = failure.get();
+        if (t == null) {
+            return;
+        }
+        if (t instanceof IOException e) {
+            throw e;
+        }
+        if (t instanceof RuntimeException e) {
+            throw e;
+        }
+        throw new IOException(t);
+    }
+}
@@ -0,0 +1,568 @@
+package com.example;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.SpinnerValueFactory;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+
+/**
+ * Roster screen: every character of a campaign in one virtualized table.
+ *
+ * The table shows a SortedList over a FilteredList over the loaded sheets.
+ * Neither view copies the sheets; they only keep index arrays into the
+ * list below them. Filtering by name, class and level range swaps the
+ * predicate of the FilteredList, sorting swaps the comparator of the
+ * SortedList. Sort comparators work on the CharacterSheet fields directly
+ * (see installSortPolicy) instead of going through the cell values, so
+ * sorting 100k rows does not create a property per comparison.
+ *
+ * Attribute totals are kept as columns next to the sheets (see
+ * ColumnarRoster) and recomputed in bulk for every character of a class
+ * when DataWatcher reports that the class's data files changed.
+ *
+ * Rows are opened in the sheet editor with a double click, Enter or the
+ * "Open in Editor" button.
+ */
+public class RosterController {
+
+    private static final String ALL_CLASSES = "All classes";
+    private static final int MAX_LEVEL = 999;
+
+    @FXML    private TextField name_filter;
+    @FXML    private ComboBox<String> class_filter;
+    @FXML    private Spinner<Integer> min_level_filter;
+    @FXML    private Spinner<Integer> max_level_filter;
+    @FXML    private Label row_count;
+    @FXML    private TableView<CharacterSheet> roster_table;
+    @FXML    private TableColumn<CharacterSheet, String> player_col;
+    @FXML    private TableColumn<CharacterSheet, String> character_col;
+    @FXML    private TableColumn<CharacterSheet, String> class_col;
+    @FXML    private TableColumn<CharacterSheet, Integer> level_col;
+    @FXML    private TableColumn<CharacterSheet, Integer> strength_col;
+    @FXML    private TableColumn<CharacterSheet, Integer> dexterity_col;
+    @FXML    private TableColumn<CharacterSheet, Integer> intelligence_col;
+    @FXML    private TableColumn<CharacterSheet, Integer> luck_col;
+    @FXML    private TableColumn<CharacterSheet, Integer> power_col;
+    @FXML    private Button open_roster_btn;
+    @FXML    private Button import_sheets_btn;
+    @FXML    private Button import_all_btn;
+    @FXML    private Button export_all_btn;
+    @FXML    private Button open_in_editor_btn;
+    @FXML    private ProgressBar load_progress;
+
+    private final DataWatcher.Listener dataListener = new DataWatcher.Listener() {
+        @Override
+        public void classDataChanged(String className) {
+            reloadClassData(className);
+        }
+
+        @Override
+        public void classListChanged() {
+            reloadClassList();
+        }
+    };
+    private boolean missedReloads; // true once the window was hidden
+
+    /* rosters and sheets are read on this thread, never on the FX thread */
+    private static final ExecutorService LOAD_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "roster-io");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ObservableList<CharacterSheet> sheets = FXCollections.observableArrayList();
+    private final FilteredList<CharacterSheet> filtered = new FilteredList<>(sheets);
+    private final SortedList<CharacterSheet> sorted = new SortedList<>(filtered);
+
+    // attribute totals of the sheets, row n is sheets.get(n); updated before the sheets change
+    private ColumnarRoster columns = new ColumnarRoster(0);
+    private final Map<CharacterSheet, Integer> rowOf = new IdentityHashMap<>();
+
+    // column -> comparator over the sheet itself, used by the sort policy
+    private final Map<TableColumn<CharacterSheet, ?>, Comparator<CharacterSheet>> sortKeys = new HashMap<>();
+
+    private Consumer<CharacterSheet> onOpen = sheet -> { };
+
+    /**
+     * @param onOpen - called on the FX thread with the sheet to show in the editor
+     */
+    void setOnOpen(Consumer<CharacterSheet> onOpen) {
+        this.onOpen = onOpen;
+    }
+
+    /**
+     * Replaces the shown characters. One change event for the whole list.
+     *
+     * @param roster - characters to show
+     */
+    void setSheets(List<CharacterSheet> roster) {
+        columns = ColumnarRoster.of(roster);
+        rowOf.clear();
+        for (int row = 0; row < roster.size(); row++) {
+            rowOf.put(roster.get(row), row);
+        }
+        sheets.setAll(roster);
+    }
+
+    /**
+     * Appends characters. Their totals are computed before the table, its
+     * filter or its sort can ask for them.
+     *
+     * @param added - characters to add after the shown ones
+     */
+    void addSheets(List<CharacterSheet> added) {
+        for (CharacterSheet sheet : added) {
+            rowOf.put(sheet, columns.add(sheet.className(), sheet.level()));
+        }
+        columns.recompute();
+        sheets.addAll(added);
+    }
+
+    /**
+     * @return the loaded characters, unfiltered and read only (the stat
+     * columns must change along with them, see setSheets and addSheets)
+     */
+    ObservableList<CharacterSheet> sheets() {
+        return FXCollections.unmodifiableObservableList(sheets);
+    }
+
+    /* ---------- FILTERING ---------- */
+    /**
+     * Helper function: builds the predicate for the current filter controls
+     * and hands it to the FilteredList. The name is lower-cased once here so
+     * the per-row test does not allocate.
+     */
+    private void applyFilter() {
+        String query = name_filter.getText() == null ? "" : name_filter.getText().trim().toLowerCase();
+        String cls = class_filter.getValue();
+        boolean anyClass = cls == null || ALL_CLASSES.equals(cls);
+        int min = valueOf(min_level_filter, 1);
+        int max = valueOf(max_level_filter, MAX_LEVEL);
+
+        Predicate<CharacterSheet> predicate = sheet -> sheet.level() >= min
+                && sheet.level() <= max
+                && (anyClass || sheet.className().equalsIgnoreCase(cls))
+                && (query.isEmpty() || containsIgnoreCase(sheet.characterName(), query)
+                        || containsIgnoreCase(sheet.playerName(), query));
+
+        try (Metrics.Span span = Metrics.start("roster.filter")) {
+            // null shows everything without testing each row
+            boolean none = query.isEmpty() && anyClass && min <= 1 && max >= MAX_LEVEL;
+            filtered.setPredicate(none ? null : predicate);
+        }
+        updateRowCount();
+    }
+
+    /* case-insensitive substring test; needle must already be lower case */
+    private static boolean containsIgnoreCase(String haystack, String needle) {
+        int last = haystack.length() - needle.length();
+        for (int i = 0; i <= last; i++) {
+            if (haystack.regionMatches(true, i, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int valueOf(Spinner<Integer> spinner, int fallback) {
+        Integer v = spinner.getValue();
+        return v == null ? fallback : v;
+    }
+
+    private void updateRowCount() {
+        row_count.setText(filtered.size() + " of " + sheets.size() + " characters");
+    }
+
+    /* ---------- SORTING ---------- */
+    /**
+     * Helper function: sorts by replacing the SortedList comparator with one
+     * composed from the table's sort order and the per-column sheet
+     * comparators, so no cell values are created while sorting.
+     */
+    private void installSortPolicy() {
+        roster_table.setSortPolicy(table -> {
+            Comparator<CharacterSheet> comparator = null;
+            for (TableColumn<CharacterSheet, ?> column : table.getSortOrder()) {
+                Comparator<CharacterSheet> key = sortKeys.get(column);
+                if (key == null) {
+                    continue;
+                }
+                if (column.getSortType() == TableColumn.SortType.DESCENDING) {
+                    key = key.reversed();
+                }
+                comparator = comparator == null ? key : comparator.thenComparing(key);
+            }
+            try (Metrics.Span span = Metrics.start("roster.sort")) {
+                sorted.setComparator(comparator);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * @param sheet - a loaded sheet
+     * @param attribute - ClassRules attribute index
+     * @return its total as of the last recompute of the columns
+     */
+    private int stat(CharacterSheet sheet, int attribute) {
+        return columns.stat(attribute, rowOf.get(sheet));
+    }
+
+    private void textColumn(TableColumn<CharacterSheet, String> column, Function<CharacterSheet, String> value) {
+        column.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(value.apply(c.getValue())));
+        sortKeys.put(column, Comparator.comparing(value, String.CASE_INSENSITIVE_ORDER));
+    }
+
+    private void intColumn(TableColumn<CharacterSheet, Integer> column, ToIntFunction<CharacterSheet> value) {
+        column.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(value.applyAsInt(c.getValue())));
+        sortKeys.put(column, Comparator.comparingInt(value));
+    }
+
+    /* ---------- LOADING ---------- */
+    /**
+     * Loads a binary roster (see RosterFile) in the background and shows all
+     * of its characters.
+     */
+    @FXML
+    private void handleOpenRoster() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Open Roster");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Roster Files", "*.roster"));
+        File file = chooser.showOpenDialog(owner());
+        if (file == null) {
+            return;
+        }
+
+        Task<List<CharacterSheet>> task = new Task<>() {
+            @Override
+            protected List<CharacterSheet> call() throws Exception {
+                try (RosterFile roster = RosterFile.open(file.toPath())) {
+                    int n = roster.size();
+                    List<CharacterSheet> loaded = new ArrayList<>(n);
+                    for (int id = 0; id < n; id++) {
+                        if ((id & 0xFFF) == 0) {
+                            if (isCancelled()) {
+                                return null;
+                            }
+                            updateProgress(id, n);
+                        }
+                        loaded.add(roster.get(id));
+                    }
+                    NameIndex.shared().addAll(loaded); // names of the roster autocomplete in the editor
+                    return loaded;
+                }
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (task.getValue() != null) {
+                setSheets(task.getValue());
+            }
+        });
+        runLoadTask(task, "Open Roster");
+    }
+
+    /**
+     * Adds characters from sheet CSVs exported by the editor to the roster.
+     */
+    @FXML
+    private void handleImportSheets() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Add Sheets");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        List<File> files = chooser.showOpenMultipleDialog(owner());
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+
+        Task<List<CharacterSheet>> task = new Task<>() {
+            @Override
+            protected List<CharacterSheet> call() throws Exception {
+                List<CharacterSheet> loaded = new ArrayList<>(files.size());
+                for (int i = 0; i < files.size(); i++) {
+                    if (isCancelled()) {
+                        return null;
+                    }
+                    updateProgress(i, files.size());
+                    Path path = files.get(i).toPath();
+                    loaded.add(CharacterSheet.fromFields(SheetCsv.readFields(path)));
+                }
+                NameIndex.shared().addAll(loaded);
+                return loaded;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (task.getValue() != null) {
+                addSheets(task.getValue());
+            }
+        });
+        runLoadTask(task, "Add Sheets");
+    }
+
+    /* ---------- ARCHIVES ---------- */
+    /**
+     * Replaces the roster with every sheet of a zip or gzip archive written
+     * by Export All (see RosterArchive). Each batch the archive pipeline
+     * hands on is shown as soon as it is read: the first one replaces the
+     * roster, later ones are appended. Cancelling or a failure keeps the
+     * sheets shown so far.
+     */
+    @FXML
+    private void handleImportAll() {
+        FileChooser chooser = archiveChooser("Import All");
+        File file = chooser.showOpenDialog(owner());
+        if (file == null) {
+            return;
+        }
+
+        Task<Integer> task = new Task<>() {
+            private boolean first = true;
+
+            @Override
+            protected Integer call() throws Exception {
+                int count = RosterArchive.read(file.toPath(), this::isCancelled, batch -> {
+                    NameIndex.shared().addAll(batch);
+                    apply(batch);
+                    updateProgress(-1, 1); // the sheet count is not known until the end
+                });
+                if (first && !isCancelled()) {
+                    apply(List.of()); // an empty archive still replaces the roster
+                }
+                return count;
+            }
+
+            /* runs on the roster thread; batches reach the FX thread in order */
+            private void apply(List<CharacterSheet> batch) {
+                boolean replace = first;
+                first = false;
+                Platform.runLater(() -> {
+                    if (replace) {
+                        setSheets(batch);
+                    } else {
+                        addSheets(batch);
+                    }
+                });
+            }
+        };
+        runLoadTask(task, "Import All");
+    }
+
+    /**
+     * Writes every loaded character, ignoring the filters, to one zip or
+     * gzip archive.
+     */
+    @FXML
+    private void handleExportAll() {
+        FileChooser chooser = archiveChooser("Export All");
+        File file = chooser.showSaveDialog(owner());
+        if (file == null) {
+            return;
+        }
+
+        List<CharacterSheet> snapshot = List.copyOf(sheets);
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                return RosterArchive.write(snapshot, file.toPath(), this::isCancelled,
+                        written -> updateProgress(written, snapshot.size()));
+            }
+        };
+        runLoadTask(task, "Export All");
+    }
+
+    private static FileChooser archiveChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Zip Archives", "*.zip"),
+                new FileChooser.ExtensionFilter("Gzip CSV", "*.csv.gz", "*.gz"));
+        return chooser;
+    }
+
+    /**
+     * Helper function: runs a load task on the roster thread and shows its
+     * progress. The load buttons are disabled until it finishes, and a
+     * failure is shown in an error dialog.
+     *
+     * @param task - task to run
+     * @param action - name of the button that started it, for the dialog
+     */
+    private void runLoadTask(Task<?> task, String action) {
+        load_progress.progressProperty().bind(task.progressProperty());
+        setLoading(true);
+        task.runningProperty().addListener((obs, was, running) -> {
+            if (!running) {
+                setLoading(false);
+                if (task.getException() != null) {
+                    task.getException().printStackTrace();
+                    showError(action, task.getException());
+                }
+            }
+        });
+        LOAD_EXECUTOR.execute(task);
+    }
+
+    private void showError(String action, Throwable error) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.initOwner(owner());
+        alert.setTitle(action);
+        alert.setHeaderText(action + " failed");
+        alert.setContentText(error.getMessage() != null ? error.getMessage() : error.toString());
+        alert.show();
+    }
+
+    private void setLoading(boolean loading) {
+        if (!loading) {
+            load_progress.progressProperty().unbind();
+        }
+        load_progress.setVisible(loading);
+        open_roster_btn.setDisable(loading);
+        import_sheets_btn.setDisable(loading);
+        import_all_btn.setDisable(loading);
+        export_all_btn.setDisable(loading);
+    }
+
+    private Window owner() {
+        return roster_table.getScene() != null ? roster_table.getScene().getWindow() : null;
+    }
+
+    /* ---------- OPEN IN EDITOR ---------- */
+    @FXML
+    private void handleOpenInEditor() {
+        CharacterSheet selected = roster_table.getSelectionModel().getSelectedItem();
+        if (selected != null) {
+            onOpen.accept(selected);
+        }
+    }
+
+    /* ---------- HOT RELOAD ---------- */
+    /**
+     * Helper function: recomputes the totals of every loaded character of
+     * the class in one pass over the columns (see ColumnarRoster), then
+     * redraws the visible rows. If the table is sorted it is sorted again,
+     * since stat columns of that class may have changed order.
+     *
+     * @param className - class whose files changed, null for every class
+     */
+    private void reloadClassData(String className) {
+        if (className == null) {
+            columns.recompute();
+        } else {
+            columns.recompute(className);
+        }
+        roster_table.refresh();
+        if (!roster_table.getSortOrder().isEmpty()) {
+            roster_table.sort();
+        }
+    }
+
+    private void reloadClassList() {
+        String current = class_filter.getValue();
+        class_filter.getItems().setAll(ALL_CLASSES);
+        class_filter.getItems().addAll(ResourceManifest.get().classes());
+        class_filter.setValue(current != null && class_filter.getItems().contains(current) ? current : ALL_CLASSES);
+    }
+
+    /* ========= Init ========= */
+    @FXML
+    private void initialize() {
+        textColumn(player_col, CharacterSheet::playerName);
+        textColumn(character_col, CharacterSheet::characterName);
+        textColumn(class_col, CharacterSheet::className);
+        intColumn(level_col, CharacterSheet::level);
+        intColumn(strength_col, s -> stat(s, ClassRules.STRENGTH));
+        intColumn(dexterity_col, s -> stat(s, ClassRules.DEXTERITY));
+        intColumn(intelligence_col, s -> stat(s, ClassRules.INTELLIGENCE));
+        intColumn(luck_col, s -> stat(s, ClassRules.LUCK));
+        intColumn(power_col, s -> stat(s, ClassRules.POWER));
+
+        // every row has the same height, so the table can skip measuring them
+        roster_table.setFixedCellSize(24);
+        roster_table.setItems(sorted);
+        installSortPolicy();
+
+        roster_table.setRowFactory(table -> {
+            TableRow<CharacterSheet> row = new TableRow<>();
+            row.setOnMouseClicked(e -> {
+                if (e.getClickCount() == 2 && !row.isEmpty()) {
+                    onOpen.accept(row.getItem());
+                }
+            });
+            return row;
+        });
+        roster_table.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ENTER) {
+                handleOpenInEditor();
+            }
+        });
+        open_in_editor_btn.disableProperty().bind(roster_table.getSelectionModel().selectedItemProperty().isNull());
+
+        class_filter.getItems().add(ALL_CLASSES);
+        class_filter.getItems().addAll(ResourceManifest.get().classes());
+        class_filter.setValue(ALL_CLASSES);
+        min_level_filter.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, MAX_LEVEL, 1));
+        max_level_filter.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, MAX_LEVEL, MAX_LEVEL));
+
+        name_filter.textProperty().addListener((obs, was, now) -> applyFilter());
+        class_filter.valueProperty().addListener((obs, was, now) -> applyFilter());
+        min_level_filter.valueProperty().addListener((obs, was, now) -> applyFilter());
+        max_level_filter.valueProperty().addListener((obs, was, now) -> applyFilter());
+        sheets.addListener((ListChangeListener<CharacterSheet>) c -> updateRowCount());
+
+        // reloads are received only while the window is showing, so a closed one can be collected
+        roster_table.sceneProperty().addListener((obs, old, scene) -> {
+            if (scene != null) {
+                scene.windowProperty().addListener((o, was, window) -> {
+                    if (window != null) {
+                        window.addEventHandler(WindowEvent.WINDOW_SHOWN, e -> {
+                            DataWatcher.addListener(dataListener);
+                            if (missedReloads) { // reloads while hidden were not seen
+                                reloadClassList();
+                                reloadClassData(null);
+                            }
+                        });
+                        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> {
+                            DataWatcher.removeListener(dataListener);
+                            missedReloads = true;
+                        });
+                    }
+                });
+            }
+        });
+        updateRowCount();
+    }
+}
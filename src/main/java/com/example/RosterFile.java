@@ -0,0 +1,360 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary roster of many characters.
+ *
+ * The roster is two files. The record file holds a 16 byte header (magic,
+ * version, record count) followed by fixed width records, so record n lives
+ * at a known offset and is read straight from a MappedByteBuffer. The
+ * string file (same name plus ".strings") is an append-only table of
+ * length-prefixed UTF-8 strings; records refer to player, character and
+ * class names by their index in it, and every distinct string is stored
+ * once.
+ *
+ * Both files only ever grow at the end. The record file keeps spare
+ * capacity past the last record; the header count says how much is used.
+ * String table entries are written before the record that refers to them,
+ * but the two files reach the disk in no set order, so open() drops
+ * records whose string ids point past the end of the table (a crash
+ * between the two writes). Not thread safe: one writer, and readers must
+ * not run concurrently with append.
+ */
+final class RosterFile implements Closeable {
+
+    private static final int MAGIC = 0x52535452;         // "RSTR"
+    private static final int STRINGS_MAGIC = 0x52535453; // "RSTS"
+    private static final int VERSION = 2;                 // 1 also cached attribute totals
+    private static final int HEADER_BYTES = 16;          // magic, version, count, reserved
+
+    /* record layout, in bytes */
+    private static final int CLASS_ID = 0;
+    private static final int LEVEL = 4;
+    private static final int PLAYER_ID = 8;
+    private static final int CHARACTER_ID = 12;
+    static final int RECORD_BYTES = 16;
+
+    private static final int INITIAL_CAPACITY = 1024;     // records
+
+    private final FileChannel records;
+    private final FileChannel strings;
+    private MappedByteBuffer map;
+    private int capacity;
+    private int count;
+
+    private final List<String> stringById = new ArrayList<>();
+    private final Map<String, Integer> idByString = new HashMap<>();
+
+    private RosterFile(FileChannel records, FileChannel strings) {
+        this.records = records;
+        this.strings = strings;
+    }
+
+    /**
+     * Opens a roster, creating empty files if they do not exist yet.
+     *
+     * @param path - the record file; the string table is path + ".strings"
+     * @return the open roster
+     * @throws IOException if the files cannot be opened or are not rosters
+     */
+    static RosterFile open(Path path) throws IOException {
+        FileChannel records = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int count;
+        FileChannel strings;
+        try {
+            // nothing is mapped, grown or created next to a file that is not a roster
+            count = readHeader(records);
+            strings = FileChannel.open(path.resolveSibling(path.getFileName() + ".strings"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            records.close();
+            throw e;
+        }
+        RosterFile roster = new RosterFile(records, strings);
+        try {
+            roster.load(count);
+        } catch (IOException | RuntimeException e) {
+            roster.close();
+            throw e;
+        }
+        return roster;
+    }
+
+    /**
+     * @return number of records
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Reads one record. O(1): a fixed offset into the mapped file.
+     *
+     * @param id - record id, 0 based in append order
+     * @return the character stored in the record
+     */
+    CharacterSheet get(int id) {
+        int at = offset(id);
+        return new CharacterSheet(
+                stringById.get(map.getInt(at + PLAYER_ID)),
+                stringById.get(map.getInt(at + CHARACTER_ID)),
+                stringById.get(map.getInt(at + CLASS_ID)),
+                map.getInt(at + LEVEL));
+    }
+
+    /**
+     * @param id - record id
+     * @return the class name of the record, without building a sheet
+     */
+    String className(int id) {
+        return stringById.get(map.getInt(offset(id) + CLASS_ID));
+    }
+
+    /**
+     * @param id - record id
+     * @return the level of the record
+     */
+    int level(int id) {
+        return map.getInt(offset(id) + LEVEL);
+    }
+
+    /**
+     * Appends a character. Attribute totals are not stored; they follow
+     * from class and level (see CharacterSheet).
+     *
+     * @param sheet - character to store
+     * @return id of the new record
+     * @throws IOException if the files cannot grow
+     */
+    int append(CharacterSheet sheet) throws IOException {
+        int classId = intern(sheet.className());
+        int playerId = intern(sheet.playerName());
+        int characterId = intern(sheet.characterName());
+
+        if (count == capacity) {
+            remap(capacity * 2);
+        }
+        int id = count;
+        int at = HEADER_BYTES + id * RECORD_BYTES;
+        map.putInt(at + CLASS_ID, classId);
+        map.putInt(at + LEVEL, sheet.level());
+        map.putInt(at + PLAYER_ID, playerId);
+        map.putInt(at + CHARACTER_ID, characterId);
+        count++;
+        map.putInt(8, count); // publish the record only after it is complete
+        return id;
+    }
+
+    /* ---------- CSV CONVERTERS ---------- */
+    /**
+     * Appends a sheet exported by the editor (fxid,value csv).
+     *
+     * @param csv - sheet file
+     * @return id of the new record
+     * @throws IOException if the sheet cannot be read or the roster written
+     */
+    int importCsv(Path csv) throws IOException {
+        return append(CharacterSheet.fromFields(SheetCsv.readFields(csv)));
+    }
+
+    /**
+     * Writes one record as a sheet the editor can import, using the same
+     * keys (player_name, character_name, class_selection,
+     * level_display_field).
+     *
+     * @param id - record id
+     * @param csv - destination file
+     * @throws IOException if the file cannot be written
+     */
+    void exportCsv(int id, Path csv) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            SheetCsv.writeFields(get(id).toFields(), out);
+        }
+    }
+
+    /**
+     * Flushes mapped records and the string table to disk.
+     *
+     * @throws IOException if syncing fails
+     */
+    void force() throws IOException {
+        if (map != null) {
+            map.force();
+        }
+        strings.force(false);
+    }
+
+    /**
+     * Flushes and closes both files. The record file is not trimmed to its
+     * count: it is still mapped, and a mapped file cannot be truncated on
+     * every platform.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (map != null) {
+                map.force();
+                map = null;
+            }
+        } finally {
+            try {
+                records.close();
+            } finally {
+                strings.close();
+            }
+        }
+    }
+
+    /* ---------- INTERNALS ---------- */
+    private int offset(int id) {
+        if (id < 0 || id >= count) {
+            throw new IndexOutOfBoundsException("record " + id + " of " + count);
+        }
+        return HEADER_BYTES + id * RECORD_BYTES;
+    }
+
+    /**
+     * Helper function: reads and checks the header through the channel,
+     * before anything is mapped.
+     *
+     * @return the record count, or -1 for an empty (new) file
+     * @throws IOException if the file is not a roster or its count does not
+     * fit its size
+     */
+    private static int readHeader(FileChannel records) throws IOException {
+        long size = records.size();
+        if (size == 0) {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && records.read(header, header.position()) > 0) {
+            // read the whole header
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a roster file (or unsupported version)");
+        }
+        int count = header.getInt(8);
+        if (count < 0 || count > (size - HEADER_BYTES) / RECORD_BYTES) {
+            throw new IOException("Corrupt roster file: " + count + " records do not fit in " + size + " bytes");
+        }
+        return count;
+    }
+
+    /* maps a checked file; count is -1 for a new file */
+    private void load(int headerCount) throws IOException {
+        if (headerCount < 0) {
+            remap(INITIAL_CAPACITY);
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putInt(8, 0);
+        } else {
+            remap(Math.max(INITIAL_CAPACITY, (int) ((records.size() - HEADER_BYTES) / RECORD_BYTES)));
+            count = headerCount;
+        }
+        loadStrings();
+        dropDanglingRecords();
+    }
+
+    /* maps header plus room for the given number of records, growing the file if needed */
+    private void remap(int newCapacity) throws IOException {
+        long bytes = HEADER_BYTES + (long) newCapacity * RECORD_BYTES;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Roster full");
+        }
+        if (map != null) {
+            map.force();
+        }
+        map = records.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        capacity = newCapacity;
+    }
+
+    private void loadStrings() throws IOException {
+        long size = strings.size();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(4).putInt(0, STRINGS_MAGIC);
+            strings.write(header, 0);
+            return;
+        }
+        ByteBuffer all = ByteBuffer.allocate((int) size);
+        while (all.hasRemaining() && strings.read(all, all.position()) > 0) {
+            // read the whole table
+        }
+        all.flip();
+        if (all.remaining() < 4 || all.getInt() != STRINGS_MAGIC) {
+            throw new IOException("Not a roster string table");
+        }
+        int good = all.position();
+        while (all.remaining() >= 4) {
+            int length = all.getInt();
+            if (length < 0 || length > all.remaining()) {
+                break; // torn write at the end
+            }
+            byte[] utf8 = new byte[length];
+            all.get(utf8);
+            String s = new String(utf8, StandardCharsets.UTF_8);
+            idByString.putIfAbsent(s, stringById.size());
+            stringById.add(s);
+            good = all.position();
+        }
+        if (good < size) {
+            strings.truncate(good); // drop the partial entry so appends stay aligned
+        }
+    }
+
+    /**
+     * Helper function: finds the first record that refers to a string past
+     * the end of the table and drops it and every record after it, like a
+     * torn journal tail. Later records may look fine, but were appended
+     * after a write that did not survive.
+     */
+    private void dropDanglingRecords() {
+        int strings = stringById.size();
+        for (int id = 0; id < count; id++) {
+            int at = offset(id);
+            if (!valid(map.getInt(at + CLASS_ID), strings) || !valid(map.getInt(at + PLAYER_ID), strings)
+                    || !valid(map.getInt(at + CHARACTER_ID), strings)) {
+                System.err.println("Roster: dropping " + (count - id) + " records written after a lost string");
+                count = id;
+                map.putInt(8, count);
+                return;
+            }
+        }
+    }
+
+    private static boolean valid(int stringId, int strings) {
+        return stringId >= 0 && stringId < strings;
+    }
+
+    /* returns the id of a string, appending it to the table the first time it is seen */
+    private int intern(String s) throws IOException {
+        Integer id = idByString.get(s);
+        if (id != null) {
+            return id;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(4 + utf8.length).putInt(utf8.length).put(utf8).flip();
+        long position = strings.size();
+        while (entry.hasRemaining()) {
+            position += strings.write(entry, position);
+        }
+        int newId = stringById.size();
+        stringById.add(s);
+        idByString.put(s, newId);
+        return newId;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The two column (fxid,value) CSV format of exported character sheets. Used
+ * by the sheet editor and by the headless batch engine, so both read and
+ * write exactly the same files. Parsing and escaping go through CsvCodec;
+ * files are streamed, never loaded whole.
+ */
+final class SheetCsv {
+
+    static final String HEADER = "fxid,value";
+
+    /* keys are matched against these without allocating a String per row */
+    private static final String[] KNOWN_KEYS = {
+        CharacterSheet.PLAYER_NAME, CharacterSheet.CHARACTER_NAME, CharacterSheet.CLASS_SELECTION, CharacterSheet.LEVEL,
+        "strength_tf", "dexterity_tf", "intelligence_tf", "luck_tf", "power_tf"
+    };
+
+    // one codec (and its buffers) per thread, reused for every file that thread reads
+    private static final ThreadLocal<CsvCodec> CODEC = ThreadLocal.withInitial(CsvCodec::new);
+
+    private SheetCsv() {
+    }
+
+    /**
+     * Reads every key/value row of a sheet file, in file order.
+     *
+     * @param file - sheet to read
+     * @return fxid -> value, later rows win for repeated keys
+     * @throws IOException if the file cannot be read
+     */
+    static Map<String, String> readFields(Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return readFields(in);
+        }
+    }
+
+    /**
+     * Reads every key/value row from a reader. A leading fxid header is
+     * skipped, blank rows and rows without a key are ignored. Text after a
+     * second unquoted comma stays part of the value, as it always has.
+     *
+     * @param in - reader positioned at the start of a sheet, not closed
+     * @return fxid -> value
+     * @throws IOException if reading fails
+     */
+    static Map<String, String> readFields(Reader in) throws IOException {
+        FieldCollector collector = new FieldCollector();
+        CODEC.get().parse(in, collector);
+        return collector.fields;
+    }
+
+    /**
+     * Writes the header and one row per entry.
+     *
+     * @param fields - fxid -> value, written in iteration order
+     * @param out - destination, not closed
+     * @throws IOException if writing fails
+     */
+    static void writeFields(Map<String, String> fields, Writer out) throws IOException {
+        out.write(HEADER); // header
+        out.write(System.lineSeparator());
+        for (var e : fields.entrySet()) {
+            CsvCodec.writeRecord(out, e.getKey(), e.getValue());
+        }
+    }
+
+    /* collects the rows of one sheet into a map */
+    private static final class FieldCollector implements CsvCodec.RecordHandler {
+
+        final Map<String, String> fields = new LinkedHashMap<>();
+        private boolean firstRecord = true;
+        private String key;
+        private String value;
+
+        @Override
+        public void field(int column, CharSequence v) {
+            if (column == 0) {
+                key = v.length() == 0 ? null : knownKey(v);
+                value = "";
+            } else if (column == 1) {
+                value = v.toString();
+            } else {
+                value = value + "," + v; // unquoted comma inside the value
+            }
+        }
+
+        @Override
+        public void endRecord(int columns) {
+            // skip header if present
+            boolean header = firstRecord && key != null && key.regionMatches(true, 0, "fxid", 0, 4);
+            firstRecord = false;
+            if (key != null && !header) {
+                fields.put(key, value);
+            }
+        }
+
+        private static String knownKey(CharSequence v) {
+            for (String k : KNOWN_KEYS) {
+                if (k.contentEquals(v)) {
+                    return k;
+                }
+            }
+            return v.toString();
+        }
+    }
+}
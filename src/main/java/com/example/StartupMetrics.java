@@ -0,0 +1,83 @@
+package com.example;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * Measures startup from the moment the JVM process started:
+ * time to first frame (first pulse of the main scene), time until the
+ * background preload is done (first class switch is instant from then on)
+ * and time to the first user input. Each milestone is printed once when
+ * reporting is enabled (--startup-report).
+ */
+final class StartupMetrics {
+
+    private final Instant processStart;
+    private final boolean report;
+    private boolean firstFrame;
+    private boolean firstInput;
+
+    StartupMetrics(boolean report) {
+        this.report = report;
+        this.processStart = ProcessHandle.current().info().startInstant().orElseGet(Instant::now);
+    }
+
+    /**
+     * Hooks the first pulse and the first mouse press / key press of a scene.
+     *
+     * @param scene - the main scene, before it is shown
+     */
+    void watch(Scene scene) {
+        Runnable pulse = new Runnable() {
+            @Override
+            public void run() {
+                if (!firstFrame) {
+                    firstFrame = true;
+                    milestone("first frame");
+                    scene.removePostLayoutPulseListener(this);
+                }
+            }
+        };
+        scene.addPostLayoutPulseListener(pulse);
+
+        EventHandler<Event> input = new EventHandler<>() {
+            @Override
+            public void handle(Event e) {
+                if (!firstInput) {
+                    firstInput = true;
+                    milestone("first interaction");
+                    scene.removeEventFilter(MouseEvent.MOUSE_PRESSED, this);
+                    scene.removeEventFilter(KeyEvent.KEY_PRESSED, this);
+                }
+            }
+        };
+        scene.addEventFilter(MouseEvent.MOUSE_PRESSED, input);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, input);
+    }
+
+    /**
+     * Records that all class data is preloaded.
+     */
+    void preloaded() {
+        milestone("preload done");
+    }
+
+    /**
+     * @return milliseconds since the JVM process started
+     */
+    long elapsedMillis() {
+        return Duration.between(processStart, Instant.now()).toMillis();
+    }
+
+    private void milestone(String name) {
+        if (report) {
+            System.err.println("startup: " + name + " after " + elapsedMillis() + " ms");
+        }
+    }
+}
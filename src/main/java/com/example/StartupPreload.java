@@ -0,0 +1,59 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javafx.stage.Screen;
+
+/**
+ * Warms the shared caches in the background while the first window is being
+ * built: the class list (through the resource manifest), every class's stat
+ * tables, every portrait and the skill icon atlas. By the time the user
+ * picks a class nothing is left to parse or decode.
+ */
+final class StartupPreload {
+
+    /* fitWidth and fitHeight of image_display in primary.fxml, so the preloaded portraits are the ones shown */
+    static final double PORTRAIT_WIDTH = 250.0;
+    static final double PORTRAIT_HEIGHT = 350.0;
+
+    private StartupPreload() {
+    }
+
+    /**
+     * Starts preloading on the common fork-join pool and returns at once.
+     * Called on the FX thread, which reads the screen scale for the portraits.
+     *
+     * @return completes when every class table is parsed and every portrait
+     * has been handed to the image cache (decoding itself continues in the
+     * background loader)
+     */
+    static CompletableFuture<Void> start() {
+        double scale = Screen.getPrimary().getOutputScaleX();
+        return CompletableFuture.supplyAsync(() -> ResourceManifest.get().classes())
+                .thenCompose(classes -> {
+                    List<CompletableFuture<?>> work = new ArrayList<>();
+                    for (String cls : classes) {
+                        work.add(CompletableFuture.runAsync(() -> ClassRules.forClass(cls)));
+                        work.add(CompletableFuture.runAsync(() -> portrait(portraitPath(cls), scale)));
+                    }
+                    work.add(CompletableFuture.runAsync(() -> portrait("images/blank_image.png", scale)));
+                    work.add(CompletableFuture.runAsync(IconAtlas::get)); // every skill icon, one page decode
+                    return CompletableFuture.allOf(work.toArray(new CompletableFuture<?>[0]));
+                });
+    }
+
+    private static void portrait(String path, double scale) {
+        ImageCache.shared().image(path, PORTRAIT_WIDTH, PORTRAIT_HEIGHT, scale);
+    }
+
+    /**
+     * @param className - class name
+     * @return portrait resource path, as used by the sheet editor
+     */
+    private static String portraitPath(String className) {
+        String slug = className.toLowerCase().replace(' ', '_');
+        return "images/" + slug + "_image.png";
+    }
+}
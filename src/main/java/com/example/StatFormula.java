@@ -0,0 +1,488 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A derived stat defined by designers in the class data, e.g.
+ * attack = strength * 2 + power. Formulas live next to the base stats in
+ * stats/<class>_formulas.csv, one "name,formula" row each:
+ *
+ *   stat,formula
+ *   attack,strength * 2 + power
+ *   crit_chance,"min(luck * 3 + level, 75)"
+ *
+ * The language is integer arithmetic: + - * / %, unary minus, parentheses,
+ * min(a, b), max(a, b) and abs(a). Names are the five attributes, level,
+ * and any formula defined on an earlier row. Division or remainder by zero
+ * gives 0 so a bad row never stops the editor.
+ *
+ * A formula is parsed once and compiled into a MethodHandle tree of type
+ * (int[] attributes, int level)int: constants and attribute reads are
+ * leaves, every operator is a static method combined with its operands
+ * through collectArguments/permuteArguments. Constant subexpressions are
+ * folded while parsing. The tree is then bound as the constant of its own
+ * hidden class (see CompiledFormula), so the JIT compiles each formula like
+ * hand-written Java; nothing is interpreted per evaluation.
+ */
+final class StatFormula {
+
+    /* type of every compiled formula */
+    static final MethodType TYPE = MethodType.methodType(int.class, int[].class, int.class);
+
+    private static final MethodHandle ADD;
+    private static final MethodHandle SUB;
+    private static final MethodHandle MUL;
+    private static final MethodHandle DIV;
+    private static final MethodHandle MOD;
+    private static final MethodHandle NEG;
+    private static final MethodHandle MIN;
+    private static final MethodHandle MAX;
+    private static final MethodHandle ABS;
+    private static final MethodHandle ATTRIBUTE = MethodHandles.arrayElementGetter(int[].class);
+    private static final MethodHandle LEVEL = MethodHandles.dropArguments(MethodHandles.identity(int.class), 0, int[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType binary = MethodType.methodType(int.class, int.class, int.class);
+            MethodType unary = MethodType.methodType(int.class, int.class);
+            ADD = lookup.findStatic(StatFormula.class, "add", binary);
+            SUB = lookup.findStatic(StatFormula.class, "sub", binary);
+            MUL = lookup.findStatic(StatFormula.class, "mul", binary);
+            DIV = lookup.findStatic(StatFormula.class, "div", binary);
+            MOD = lookup.findStatic(StatFormula.class, "mod", binary);
+            NEG = lookup.findStatic(StatFormula.class, "neg", unary);
+            MIN = lookup.findStatic(Math.class, "min", binary);
+            MAX = lookup.findStatic(Math.class, "max", binary);
+            ABS = lookup.findStatic(Math.class, "abs", unary);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String name;
+    private final String source;
+    private final MethodHandle handle;
+    private final Evaluator evaluator;
+
+    /* a compiled formula as plain Java code, see CompiledFormula */
+    interface Evaluator {
+        int evaluate(int[] attributes, int level);
+    }
+
+    private StatFormula(String name, String source, MethodHandle handle) {
+        this.name = name;
+        this.source = source;
+        this.handle = handle;
+        this.evaluator = bind(handle);
+    }
+
+    /**
+     * Parses and compiles a formula.
+     *
+     * @param name - name of the derived stat, stored in lower case like
+     *        every name in a formula
+     * @param source - formula text
+     * @param earlier - formulas it may refer to by name
+     * @return the compiled formula
+     * @throws IllegalArgumentException if the text is not a valid formula
+     */
+    static StatFormula compile(String name, String source, Map<String, StatFormula> earlier) {
+        if (!isName(name)) {
+            throw new IllegalArgumentException("invalid stat name '" + name + "'");
+        }
+        Parser parser = new Parser(source, earlier);
+        Term term = parser.expression();
+        parser.expectEnd();
+        return new StatFormula(name.toLowerCase(), source, term.handle());
+    }
+
+    String name() {
+        return name;
+    }
+
+    String source() {
+        return source;
+    }
+
+    /**
+     * @return the compiled tree, of type TYPE
+     */
+    MethodHandle handle() {
+        return handle;
+    }
+
+    /**
+     * @param attributes - attribute totals, indexed like the ClassRules attributes
+     * @param level - character level
+     * @return value of the derived stat
+     */
+    int evaluate(int[] attributes, int level) {
+        return evaluator.evaluate(attributes, level);
+    }
+
+    /* ---------- BINDING ---------- */
+    /* class file of CompiledFormula, defined again for every formula; null if unavailable */
+    private static final byte[] TEMPLATE = template();
+
+    private static byte[] template() {
+        try (InputStream in = StatFormula.class.getResourceAsStream("CompiledFormula.class")) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Helper function: defines a hidden copy of CompiledFormula holding the
+     * handle as its constant. A handle kept in an instance field cannot be
+     * inlined by the JIT and costs a few times more per call, which is what
+     * the fallback does if the template cannot be defined.
+     */
+    private static Evaluator bind(MethodHandle handle) {
+        if (TEMPLATE != null) {
+            try {
+                MethodHandles.Lookup hidden = MethodHandles.lookup().defineHiddenClassWithClassData(TEMPLATE, handle, true);
+                return (Evaluator) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+        return (attributes, level) -> invoke(handle, attributes, level);
+    }
+
+    private static int invoke(MethodHandle handle, int[] attributes, int level) {
+        try {
+            return (int) handle.invokeExact(attributes, level);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* ---------- LOADING ---------- */
+    /**
+     * Reads and compiles the formulas of a class. A row that does not
+     * compile is reported and skipped; the others still load.
+     *
+     * @param resourcePath - formulas file, see DataFiles
+     * @return the formulas in file order, empty if the file does not exist
+     */
+    static List<StatFormula> load(String resourcePath) {
+        try (InputStream in = DataFiles.open(resourcePath)) {
+            if (in == null) {
+                return List.of();
+            }
+            return load(new InputStreamReader(in, StandardCharsets.UTF_8), resourcePath);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
+    /**
+     * @param in - "name,formula" rows after a header row
+     * @param source - file name used in error messages
+     * @return the formulas that compiled, in row order
+     * @throws IOException if reading fails
+     */
+    static List<StatFormula> load(Reader in, String source) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        new CsvCodec().parse(in, new CsvCodec.RecordHandler() {
+            private final StringBuilder formula = new StringBuilder();
+            private String name;
+
+            @Override
+            public void field(int column, CharSequence value) {
+                if (column == 0) {
+                    name = value.toString();
+                    formula.setLength(0);
+                } else {
+                    if (column > 1) {
+                        formula.append(','); // unquoted comma, e.g. min(a,b)
+                    }
+                    formula.append(value);
+                }
+            }
+
+            @Override
+            public void endRecord(int columns) {
+                rows.add(new String[] {name, formula.toString()});
+            }
+        });
+
+        Map<String, StatFormula> compiled = new HashMap<>();
+        List<StatFormula> formulas = new ArrayList<>();
+        for (int i = 1; i < rows.size(); i++) { // row 0 is the header
+            String[] row = rows.get(i);
+            try {
+                StatFormula f = compile(row[0], row[1], compiled);
+                if (compiled.containsKey(f.name()) || ClassRules.attributeIndex(f.name()) >= 0 || f.name().equals("level")) {
+                    throw new IllegalArgumentException("stat '" + f.name() + "' is already defined");
+                }
+                compiled.put(f.name(), f);
+                formulas.add(f);
+            } catch (IllegalArgumentException e) {
+                System.err.println(source + ": row " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return List.copyOf(formulas);
+    }
+
+    private static boolean isName(String s) {
+        if (s == null || s.isEmpty() || !Character.isLetter(s.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < s.length(); i++) {
+            if (!Character.isLetterOrDigit(s.charAt(i)) && s.charAt(i) != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* ---------- COMPILER ---------- */
+    /* a compiled subexpression; constant ones are folded before they become handles */
+    private record Term(MethodHandle handle, boolean constant, int value) {
+
+        static Term of(int value) {
+            MethodHandle c = MethodHandles.constant(int.class, value);
+            return new Term(MethodHandles.dropArguments(c, 0, int[].class, int.class), true, value);
+        }
+
+        static Term of(MethodHandle handle) {
+            return new Term(handle, false, 0);
+        }
+    }
+
+    /* recursive descent over the formula text, compiling as it goes */
+    private static final class Parser {
+
+        private final String text;
+        private final Map<String, StatFormula> earlier;
+        private int pos;
+
+        Parser(String text, Map<String, StatFormula> earlier) {
+            this.text = text == null ? "" : text;
+            this.earlier = earlier;
+        }
+
+        // expression := term (('+' | '-') term)*
+        Term expression() {
+            Term left = term();
+            while (true) {
+                if (accept('+')) {
+                    left = binary(ADD, left, term());
+                } else if (accept('-')) {
+                    left = binary(SUB, left, term());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        // term := unary (('*' | '/' | '%') unary)*
+        private Term term() {
+            Term left = unary();
+            while (true) {
+                if (accept('*')) {
+                    left = binary(MUL, left, unary());
+                } else if (accept('/')) {
+                    left = binary(DIV, left, unary());
+                } else if (accept('%')) {
+                    left = binary(MOD, left, unary());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        // unary := '-' unary | primary
+        private Term unary() {
+            if (accept('-')) {
+                return apply(NEG, unary());
+            }
+            return primary();
+        }
+
+        // primary := number | name | function '(' args ')' | '(' expression ')'
+        private Term primary() {
+            skipSpaces();
+            if (accept('(')) {
+                Term inner = expression();
+                expect(')');
+                return inner;
+            }
+            if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                return number();
+            }
+            if (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+                int at = pos;
+                String id = name();
+                if (accept('(')) {
+                    return function(id, at);
+                }
+                return variable(id, at);
+            }
+            throw error(pos >= text.length() ? "unexpected end of formula" : "unexpected '" + text.charAt(pos) + "'", pos);
+        }
+
+        private Term number() {
+            int start = pos;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+            try {
+                return Term.of(Integer.parseInt(text.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                throw error("number too large", start);
+            }
+        }
+
+        private Term variable(String id, int at) {
+            if (id.equals("level")) {
+                return Term.of(LEVEL);
+            }
+            int attribute = ClassRules.attributeIndex(id);
+            if (attribute >= 0) {
+                MethodHandle read = MethodHandles.insertArguments(ATTRIBUTE, 1, attribute);
+                return Term.of(MethodHandles.dropArguments(read, 1, int.class));
+            }
+            StatFormula other = earlier.get(id);
+            if (other != null) {
+                return Term.of(other.handle()); // inlined: the handles share the same inputs
+            }
+            throw error("unknown name '" + id + "'", at);
+        }
+
+        private Term function(String id, int at) {
+            List<Term> args = new ArrayList<>();
+            if (!accept(')')) {
+                do {
+                    args.add(expression());
+                } while (accept(','));
+                expect(')');
+            }
+            switch (id) {
+                case "min":
+                    return binary(MIN, arity(id, args, 2, at).get(0), args.get(1));
+                case "max":
+                    return binary(MAX, arity(id, args, 2, at).get(0), args.get(1));
+                case "abs":
+                    return apply(ABS, arity(id, args, 1, at).get(0));
+                default:
+                    throw error("unknown function '" + id + "'", at);
+            }
+        }
+
+        private List<Term> arity(String id, List<Term> args, int n, int at) {
+            if (args.size() != n) {
+                throw error(id + " takes " + n + (n == 1 ? " argument" : " arguments"), at);
+            }
+            return args;
+        }
+
+        /* op(left(a, l), right(a, l)) as one (int[], int)int handle */
+        private static Term binary(MethodHandle op, Term left, Term right) {
+            if (left.constant() && right.constant()) {
+                return Term.of(invoke(op, left.value(), right.value()));
+            }
+            MethodHandle both = MethodHandles.collectArguments(op, 0, left.handle()); // (a, l, r)
+            both = MethodHandles.collectArguments(both, 2, right.handle()); // (a, l, a, l)
+            return Term.of(MethodHandles.permuteArguments(both, TYPE, 0, 1, 0, 1));
+        }
+
+        private static Term apply(MethodHandle op, Term operand) {
+            if (operand.constant()) {
+                return Term.of(invoke(op, operand.value()));
+            }
+            return Term.of(MethodHandles.filterReturnValue(operand.handle(), op));
+        }
+
+        private static int invoke(MethodHandle op, int... args) {
+            try {
+                return args.length == 1 ? (int) op.invokeExact(args[0]) : (int) op.invokeExact(args[0], args[1]);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e); // the operators never throw
+            }
+        }
+
+        private String name() {
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            return text.substring(start, pos).toLowerCase();
+        }
+
+        private boolean accept(char c) {
+            skipSpaces();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error("expected '" + c + "'", pos);
+            }
+        }
+
+        void expectEnd() {
+            skipSpaces();
+            if (pos < text.length()) {
+                throw error("unexpected '" + text.charAt(pos) + "'", pos);
+            }
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message, int at) {
+            return new IllegalArgumentException(message + " at column " + (at + 1) + " in '" + text + "'");
+        }
+    }
+
+    /* ---------- OPERATORS ---------- */
+    private static int add(int a, int b) {
+        return a + b;
+    }
+
+    private static int sub(int a, int b) {
+        return a - b;
+    }
+
+    private static int mul(int a, int b) {
+        return a * b;
+    }
+
+    private static int div(int a, int b) {
+        return b == 0 ? 0 : a / b;
+    }
+
+    private static int mod(int a, int b) {
+        return b == 0 ? 0 : a % b;
+    }
+
+    private static int neg(int a) {
+        return -a;
+    }
+}
@@ -0,0 +1,339 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Headless HTTP service for the stat rules, for bots and web front ends.
+ * Runs without the JavaFX toolkit and answers from the in-memory ClassRules
+ * cache, which is filled for every class before the port opens.
+ *
+ * Endpoints (JSON unless noted):
+ *
+ *   GET  /classes                      class list
+ *   GET  /skills?class=Wizard          skill names of a class
+ *   GET  /stats?class=Wizard&level=14  attribute totals
+ *   POST /sheet/validate               body: sheet csv; problems found, if any
+ *   POST /sheet/json                   body: sheet csv; the sheet with its stats
+ *   GET  /sheet/csv?player=&character=&class=&level=   sheet csv (text/csv)
+ *   GET  /metrics                      latency table (text/plain)
+ *
+ * Requests are handled on virtual threads when the runtime has them (Java
+ * 21+), otherwise on a bounded pool of platform threads.
+ *
+ * Usage: StatServer [port] [--data-dir=<dir>]
+ */
+public final class StatServer {
+
+    static final int DEFAULT_PORT = 8080;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    StatServer(int port) throws IOException {
+        // headers and body are separate writes; without TCP_NODELAY each keep-alive
+        // response waits out the client's delayed ACK (~40 ms). Read once, at first use.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/classes", timed("/classes", this::classes));
+        server.createContext("/skills", timed("/skills", this::skills));
+        server.createContext("/stats", timed("/stats", this::stats));
+        server.createContext("/sheet/validate", timed("/sheet/validate", this::validate));
+        server.createContext("/sheet/json", timed("/sheet/json", this::sheetJson));
+        server.createContext("/sheet/csv", timed("/sheet/csv", this::sheetCsv));
+        server.createContext("/metrics", exchange -> send(exchange, 200, "text/plain", Metrics.dump()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        for (String arg : args) {
+            if (arg.startsWith("--data-dir=")) {
+                DataFiles.setRoot(Path.of(arg.substring("--data-dir=".length())));
+            } else {
+                port = Integer.parseInt(arg);
+            }
+        }
+        // parse every class table up front so no request pays for it
+        for (String cls : ResourceManifest.get().classes()) {
+            ClassRules.forClass(cls);
+        }
+        StatServer s = new StatServer(port);
+        s.start();
+        System.out.println("Stat server on http://localhost:" + s.port() + "/");
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Helper function: virtual-thread-per-task executor when available. The
+     * build targets Java 17, so it is looked up reflectively.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "stat-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /* ---------- ENDPOINTS ---------- */
+    private interface Endpoint {
+        void handle(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    /* wraps an endpoint with timing and error handling */
+    private static HttpHandler timed(String name, Endpoint endpoint) {
+        return exchange -> {
+            try (Metrics.Span span = Metrics.start("http " + name)) {
+                endpoint.handle(exchange, query(exchange));
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, "application/json", "{\"error\":" + json(e.getMessage()) + "}");
+            } catch (Exception e) {
+                e.printStackTrace();
+                send(exchange, 500, "application/json", "{\"error\":\"internal error\"}");
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private void classes(HttpExchange exchange, Map<String, String> query) throws IOException {
+        send(exchange, 200, "application/json", "{\"classes\":" + jsonArray(ResourceManifest.get().classes()) + "}");
+    }
+
+    private void skills(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String cls = knownClass(query.get("class"));
+        String dir = "skill_icons/" + cls.toLowerCase() + "/";
+        List<String> skills = new ArrayList<>();
+        for (String file : ResourceManifest.get().listResourceFiles(dir, n -> !n.startsWith("."))) {
+            skills.add(ImageCache.prettyFileName(file));
+        }
+        skills.sort(null);
+        send(exchange, 200, "application/json",
+                "{\"class\":" + json(cls) + ",\"skills\":" + jsonArray(skills) + "}");
+    }
+
+    private void stats(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String cls = knownClass(query.get("class"));
+        int level = level(query.get("level"));
+        send(exchange, 200, "application/json", sheetJson(new CharacterSheet("", "", cls, level)));
+    }
+
+    private void validate(HttpExchange exchange, Map<String, String> query) throws IOException {
+        requirePost(exchange);
+        Map<String, String> fields = readSheet(exchange);
+        List<String> problems = problems(fields);
+        send(exchange, 200, "application/json",
+                "{\"valid\":" + problems.isEmpty() + ",\"problems\":" + jsonArray(problems) + "}");
+    }
+
+    private void sheetJson(HttpExchange exchange, Map<String, String> query) throws IOException {
+        requirePost(exchange);
+        Map<String, String> fields = readSheet(exchange);
+        List<String> problems = problems(fields);
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", problems));
+        }
+        fields.put(CharacterSheet.CLASS_SELECTION, knownClass(fields.get(CharacterSheet.CLASS_SELECTION)));
+        send(exchange, 200, "application/json", sheetJson(CharacterSheet.fromFields(fields)));
+    }
+
+    private void sheetCsv(HttpExchange exchange, Map<String, String> query) throws IOException {
+        CharacterSheet sheet = new CharacterSheet(query.get("player"), query.get("character"),
+                knownClass(query.get("class")), level(query.get("level")));
+        Map<String, String> fields = sheet.toFields();
+        for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+            fields.put(CharacterSheet.ATTRIBUTE_FIELDS[a], Integer.toString(sheet.stat(a)));
+        }
+        StringWriter csv = new StringWriter();
+        SheetCsv.writeFields(fields, csv);
+        send(exchange, 200, "text/csv", csv.toString());
+    }
+
+    /* ---------- HELPERS ---------- */
+    /**
+     * Helper function: checks the fields of an uploaded sheet the way the
+     * editor would need them.
+     *
+     * @param fields - fxid -> value
+     * @return human readable problems, empty if the sheet is fine
+     */
+    static List<String> problems(Map<String, String> fields) {
+        List<String> problems = new ArrayList<>();
+        String cls = fields.get(CharacterSheet.CLASS_SELECTION);
+        if (cls == null || cls.isBlank()) {
+            problems.add("missing " + CharacterSheet.CLASS_SELECTION);
+        } else {
+            try {
+                knownClass(cls); // any case, like the other endpoints
+            } catch (IllegalArgumentException e) {
+                problems.add(e.getMessage());
+            }
+        }
+        String level = fields.get(CharacterSheet.LEVEL);
+        if (level == null || level.isBlank()) {
+            problems.add("missing " + CharacterSheet.LEVEL);
+        } else {
+            try {
+                if (Integer.parseInt(level.trim()) < 1) {
+                    problems.add(CharacterSheet.LEVEL + " must be at least 1");
+                }
+            } catch (NumberFormatException e) {
+                problems.add(CharacterSheet.LEVEL + " is not a number: " + level);
+            }
+        }
+        if (!fields.containsKey(CharacterSheet.CHARACTER_NAME)) {
+            problems.add("missing " + CharacterSheet.CHARACTER_NAME);
+        }
+        return problems;
+    }
+
+    private static String sheetJson(CharacterSheet sheet) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append("{\"player\":").append(json(sheet.playerName()))
+                .append(",\"character\":").append(json(sheet.characterName()))
+                .append(",\"class\":").append(json(sheet.className()))
+                .append(",\"level\":").append(sheet.level());
+        for (int a = 0; a < ClassRules.ATTRIBUTE_COUNT; a++) {
+            sb.append(",\"").append(ClassRules.attributeName(a)).append("\":").append(sheet.stat(a));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String knownClass(String cls) {
+        if (cls == null || cls.isBlank()) {
+            throw new IllegalArgumentException("missing parameter: class");
+        }
+        for (String known : ResourceManifest.get().classes()) {
+            if (known.equalsIgnoreCase(cls.trim())) {
+                return known;
+            }
+        }
+        throw new IllegalArgumentException("unknown class: " + cls);
+    }
+
+    private static int level(String level) {
+        if (level == null || level.isBlank()) {
+            return 1;
+        }
+        try {
+            int value = Integer.parseInt(level.trim());
+            if (value < 1) {
+                throw new IllegalArgumentException("level must be at least 1");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("level is not a number: " + level);
+        }
+    }
+
+    private static void requirePost(HttpExchange exchange) {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            throw new IllegalArgumentException("use POST with the sheet csv as body");
+        }
+    }
+
+    private static Map<String, String> readSheet(HttpExchange exchange) throws IOException {
+        try (Reader in = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            return SheetCsv.readFields(in);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String jsonArray(List<String> values) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(json(values.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    /* JSON string literal */
+    static String json(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
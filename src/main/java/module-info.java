@@ -1,6 +1,8 @@
 module com.example {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.jfr;
+    requires jdk.httpserver;
 
     opens com.example to javafx.fxml;
     exports com.example;
@@ -0,0 +1,84 @@
+package com.example;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD version of the ColumnarRoster recompute loops, written against the
+ * incubating Vector API. It is compiled on its own, before the app (see the
+ * vector-kernel execution in the pom), and refers to nothing in the app.
+ * ColumnarRoster looks it up by name only when the module is present, so
+ * the app runs without it; the rows past the last full vector are finished
+ * by the scalar loop.
+ *
+ * Each step loads a vector of class ids and levels, gathers the class start
+ * and highest level, clamps the levels and gathers the five totals at
+ * start + level.
+ */
+final class VectorStatKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorStatKernel() {
+    }
+
+    static void recompute(int[] classId, int[] level, int n, int[] classStart, int[] classMax,
+            int[][] tables, int[][] out) {
+        int[] index = new int[SPECIES.length()];
+        int upper = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            IntVector idx = IntVector.fromArray(SPECIES, classStart, 0, classId, i)
+                    .add(IntVector.fromArray(SPECIES, level, i)
+                            .max(0)
+                            .min(IntVector.fromArray(SPECIES, classMax, 0, classId, i)));
+            idx.intoArray(index, 0);
+            for (int a = 0; a < tables.length; a++) {
+                IntVector.fromArray(SPECIES, tables[a], 0, index, 0).intoArray(out[a], i);
+            }
+        }
+        tail(classId, level, i, n, -1, classStart, classMax, tables, out);
+    }
+
+    static void recompute(int[] classId, int[] level, int n, int onlyClass, int[] classStart, int[] classMax,
+            int[][] tables, int[][] out) {
+        int[] index = new int[SPECIES.length()];
+        int start = classStart[onlyClass];
+        int max = classMax[onlyClass];
+        int upper = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            VectorMask<Integer> mine = IntVector.fromArray(SPECIES, classId, i).compare(VectorOperators.EQ, onlyClass);
+            if (!mine.anyTrue()) {
+                continue;
+            }
+            // every lane indexes into this class's table, so the gather needs no mask;
+            // rows of other classes keep their totals through the blend
+            IntVector idx = IntVector.fromArray(SPECIES, level, i).max(0).min(max).add(start);
+            idx.intoArray(index, 0);
+            for (int a = 0; a < tables.length; a++) {
+                IntVector.fromArray(SPECIES, out[a], i)
+                        .blend(IntVector.fromArray(SPECIES, tables[a], 0, index, 0), mine)
+                        .intoArray(out[a], i);
+            }
+        }
+        tail(classId, level, i, n, onlyClass, classStart, classMax, tables, out);
+    }
+
+    /* rows from..n one at a time; onlyClass -1 means every class */
+    private static void tail(int[] classId, int[] level, int from, int n, int onlyClass, int[] classStart,
+            int[] classMax, int[][] tables, int[][] out) {
+        for (int i = from; i < n; i++) {
+            int c = classId[i];
+            if (onlyClass >= 0 && c != onlyClass) {
+                continue;
+            }
+            int idx = classStart[c] + Math.min(Math.max(level[i], 0), classMax[c]);
+            for (int a = 0; a < tables.length; a++) {
+                out[a][i] = tables[a][idx];
+            }
+        }
+    }
+}
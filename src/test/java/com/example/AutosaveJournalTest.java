@@ -0,0 +1,105 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AutosaveJournalTest {
+
+    @TempDir
+    Path dir;
+
+    /* ---------- REPLAY ---------- */
+    @Test
+    void replaysValidRowsInOrder() throws IOException {
+        List<AutosaveJournal.Change> changes = replay(row(1, "level", "1", "2") + row(2, "name", "", "Ann, \"A\"\nB"));
+        assertEquals(List.of(new AutosaveJournal.Change(1, "level", "1", "2"),
+                new AutosaveJournal.Change(2, "name", "", "Ann, \"A\"\nB")), changes);
+    }
+
+    @Test
+    void stopsAtARowCutShort() throws IOException {
+        String full = row(2, "level", "2", "3");
+        for (int cut = 1; cut < full.length() - 1; cut++) {
+            List<AutosaveJournal.Change> changes = replay(row(1, "level", "1", "2") + full.substring(0, cut));
+            assertEquals(1, changes.size(), "cut at " + cut);
+        }
+    }
+
+    @Test
+    void stopsAtABadChecksumAndIgnoresLaterRows() throws IOException {
+        String bad = row(2, "level", "2", "3").replace("\"3\"", "\"4\"");
+        List<AutosaveJournal.Change> changes = replay(row(1, "level", "1", "2") + bad + row(3, "level", "4", "5"));
+        assertEquals(List.of(new AutosaveJournal.Change(1, "level", "1", "2")), changes);
+    }
+
+    @Test
+    void stopsAtAnUnreadableSequence() throws IOException {
+        String garbled = "x" + row(2, "level", "2", "3");
+        assertEquals(1, replay(row(1, "level", "1", "2") + garbled).size());
+    }
+
+    /* ---------- OPEN ---------- */
+    @Test
+    void openRebuildsStateFromSnapshotAndJournalThenCompacts() throws IOException {
+        Files.writeString(dir.resolve(AutosaveJournal.SNAPSHOT), "fxid,value\nlevel,1\nname,Ann\n");
+        Files.writeString(dir.resolve(AutosaveJournal.JOURNAL),
+                row(1, "level", "1", "2") + row(2, "name", "Ann", "Bo") + "3,\"level\",\"2\"");
+        try (AutosaveJournal journal = AutosaveJournal.open(dir)) {
+            assertEquals(Map.of("level", "2", "name", "Bo"), journal.recovered());
+            assertEquals(0, Files.size(dir.resolve(AutosaveJournal.JOURNAL))); // torn tail gone
+            assertEquals(Map.of("level", "2", "name", "Bo"), SheetCsv.readFields(dir.resolve(AutosaveJournal.SNAPSHOT)));
+        }
+    }
+
+    @Test
+    void recordedEditsSurviveAReopen() throws IOException {
+        try (AutosaveJournal journal = AutosaveJournal.open(dir)) {
+            assertTrue(journal.recovered().isEmpty());
+            journal.record("level", "1", "2");
+            journal.record("name", null, " spaced ");
+        }
+        try (AutosaveJournal journal = AutosaveJournal.open(dir)) {
+            assertEquals(Map.of("level", "2", "name", " spaced "), journal.recovered());
+        }
+    }
+
+    @Test
+    void secondOpenOfALockedDirectoryFails() throws IOException {
+        try (AutosaveJournal journal = AutosaveJournal.open(dir)) {
+            assertThrows(IOException.class, () -> AutosaveJournal.open(dir));
+        }
+        AutosaveJournal.open(dir).close(); // released by close()
+    }
+
+    private static List<AutosaveJournal.Change> replay(String journal) throws IOException {
+        return AutosaveJournal.replay(new StringReader(journal));
+    }
+
+    /* one journal row as the writer thread produces it */
+    private static String row(long seq, String field, String oldValue, String newValue) {
+        CRC32 crc = new CRC32();
+        for (String s : new String[] {Long.toString(seq), field, oldValue, newValue}) {
+            crc.update(s.getBytes(StandardCharsets.UTF_8));
+            crc.update(0);
+        }
+        return seq + "," + quoted(field) + "," + quoted(oldValue) + "," + quoted(newValue) + ","
+                + Long.toHexString(crc.getValue()) + "\n";
+    }
+
+    private static String quoted(String s) {
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+}
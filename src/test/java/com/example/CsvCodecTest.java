@@ -0,0 +1,121 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvCodecTest {
+
+    /* ---------- READING ---------- */
+    @Test
+    void quotedFieldKeepsSeparators() throws IOException {
+        assertEquals(List.of(List.of("a", "b, c", "d")), parse("a,\"b, c\",d\n"));
+    }
+
+    @Test
+    void doubledQuotesBecomeOneQuote() throws IOException {
+        assertEquals(List.of(List.of("say \"hi\"", "x")), parse("\"say \"\"hi\"\"\",x\n"));
+    }
+
+    @Test
+    void quotedFieldKeepsLineBreaks() throws IOException {
+        assertEquals(List.of(List.of("one\r\ntwo", "three\nfour"), List.of("next")),
+                parse("\"one\r\ntwo\",\"three\nfour\"\r\nnext\r\n"));
+    }
+
+    @Test
+    void crLfAndLoneCrEndRecords() throws IOException {
+        assertEquals(List.of(List.of("a"), List.of("b"), List.of("c")), parse("a\r\nb\rc\n"));
+    }
+
+    @Test
+    void trailingEmptyFieldIsReported() throws IOException {
+        assertEquals(List.of(List.of("a", "")), parse("a,\n"));
+        assertEquals(List.of(List.of("a", "")), parse("a,"));
+    }
+
+    @Test
+    void lastRecordWithoutLineBreak() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), parse("a,b\nc,d"));
+        assertEquals(List.of(List.of("a", "quoted")), parse("a,\"quoted\""));
+    }
+
+    @Test
+    void blankLinesAreSkippedAndUnquotedFieldsTrimmed() throws IOException {
+        assertEquals(List.of(List.of("a", "b c"), List.of("d", "  e ")), parse("\n  a ,\tb c \n\n\nd,\"  e \"\n"));
+    }
+
+    @Test
+    void charBufferAndReaderAgree() throws IOException {
+        String csv = "k,\"v,1\"\n\"x\"\"y\",\n";
+        Recorder recorder = new Recorder();
+        new CsvCodec().parse(CharBuffer.wrap(csv), recorder);
+        assertEquals(parse(csv), recorder.records);
+    }
+
+    /* ---------- WRITING ---------- */
+    @Test
+    void writeFieldQuotesOnlyWhenNeeded() throws IOException {
+        assertEquals("plain", write("plain"));
+        assertEquals("", write(null));
+        assertEquals("\"a,b\"", write("a,b"));
+        assertEquals("\"a\"\"b\"", write("a\"b"));
+        assertEquals("\"a\nb\"", write("a\nb"));
+        assertEquals("\"a\rb\"", write("a\rb"));
+        assertEquals("\" padded\"", write(" padded"));
+        assertEquals("\"tab\t\"", write("tab\t"));
+        assertEquals("in side", write("in side"));
+    }
+
+    @Test
+    void writtenFieldsReadBackUnchanged() throws IOException {
+        List<String> values = List.of("plain", "a,b", "say \"hi\"", "line\r\nbreak", "\"", ",", "", " lead", "trail\t", "  ");
+        StringBuilder csv = new StringBuilder();
+        for (String v : values) {
+            CsvCodec.writeRecord(csv, "key", v);
+        }
+        List<List<String>> expected = new ArrayList<>();
+        for (String v : values) {
+            expected.add(List.of("key", v));
+        }
+        assertEquals(expected, parse(csv.toString()));
+    }
+
+    private static List<List<String>> parse(String csv) throws IOException {
+        Recorder recorder = new Recorder();
+        new CsvCodec().parse(new StringReader(csv), recorder);
+        return recorder.records;
+    }
+
+    private static String write(String value) throws IOException {
+        StringBuilder out = new StringBuilder();
+        CsvCodec.writeField(out, value);
+        return out.toString();
+    }
+
+    /* copies every record, checking the column numbers on the way */
+    private static final class Recorder implements CsvCodec.RecordHandler {
+
+        final List<List<String>> records = new ArrayList<>();
+        private List<String> current = new ArrayList<>();
+
+        @Override
+        public void field(int column, CharSequence value) {
+            assertEquals(current.size(), column);
+            current.add(value.toString());
+        }
+
+        @Override
+        public void endRecord(int columns) {
+            assertEquals(current.size(), columns);
+            records.add(current);
+            current = new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class EditHistoryTest {
+
+    private static final long SECOND = EditHistory.COALESCE_NANOS;
+
+    private final CharacterSheet start = new CharacterSheet("Ann", "Bold", "Warrior", 1);
+
+    @Test
+    void undoAndRedoWalkTheStepsInOrder() {
+        EditHistory history = new EditHistory(start, EditHistory.DEFAULT_MAX_BYTES);
+        CharacterSheet a = level(start, 2);
+        CharacterSheet b = withClass(a, "Mage");
+        CharacterSheet c = level(b, 3);
+        history.record(a, 0);
+        history.record(b, 2 * SECOND);
+        history.record(c, 4 * SECOND);
+
+        assertSame(b, history.undo());
+        assertSame(a, history.undo());
+        assertSame(start, history.undo());
+        assertNull(history.undo());
+        assertFalse(history.canUndo());
+
+        assertSame(a, history.redo());
+        assertSame(b, history.redo());
+        assertSame(c, history.redo());
+        assertNull(history.redo());
+        assertSame(c, history.current());
+    }
+
+    @Test
+    void unchangedStateIsNotAStep() {
+        EditHistory history = new EditHistory(start, EditHistory.DEFAULT_MAX_BYTES);
+        assertFalse(history.record(new CharacterSheet("Ann", "Bold", "Warrior", 1), 0));
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    void sameFieldWithinTheWindowIsOneStep() {
+        EditHistory history = new EditHistory(start, EditHistory.DEFAULT_MAX_BYTES);
+        history.record(player(start, "An"), 0);
+        history.record(player(start, "Ann2"), SECOND / 2);
+        history.record(player(start, "Ann23"), SECOND / 2 + SECOND * 9 / 10); // window restarts at each edit
+        assertEquals(1, history.size());
+        assertEquals("Ann23", history.current().playerName());
+        assertSame(start, history.undo());
+    }
+
+    @Test
+    void pauseOrOtherFieldStartsANewStep() {
+        EditHistory history = new EditHistory(start, EditHistory.DEFAULT_MAX_BYTES);
+        CharacterSheet a = player(start, "A");
+        CharacterSheet b = player(a, "Al");
+        CharacterSheet c = level(b, 2);
+        history.record(a, 0);
+        history.record(b, SECOND); // window is exclusive
+        history.record(c, SECOND + 1);
+        assertEquals(3, history.size());
+        assertSame(b, history.undo());
+    }
+
+    @Test
+    void editAfterUndoIsNotMergedIntoTheUndoneStep() {
+        EditHistory history = new EditHistory(start, EditHistory.DEFAULT_MAX_BYTES);
+        CharacterSheet a = level(start, 2);
+        history.record(a, 0);
+        history.record(level(a, 3), 2 * SECOND);
+        history.undo();
+        history.record(level(a, 4), 2 * SECOND + 1);
+        assertEquals(2, history.size());
+        assertSame(a, history.undo());
+    }
+
+    @Test
+    void newEditClearsRedo() {
+        EditHistory history = new EditHistory(start, EditHistory.DEFAULT_MAX_BYTES);
+        CharacterSheet a = level(start, 2);
+        history.record(a, 0);
+        history.record(level(a, 3), 2 * SECOND);
+        history.undo();
+        assertTrue(history.canRedo());
+
+        CharacterSheet other = withClass(a, "Rogue");
+        history.record(other, 4 * SECOND);
+        assertFalse(history.canRedo());
+        assertNull(history.redo());
+        assertSame(other, history.current());
+
+        EditHistory straight = new EditHistory(start, EditHistory.DEFAULT_MAX_BYTES);
+        straight.record(a, 0);
+        straight.record(other, 4 * SECOND);
+        assertEquals(straight.bytes(), history.bytes()); // the dropped redo step is no longer charged
+    }
+
+    @Test
+    void oldestStepsAreDroppedAtTheByteCap() {
+        EditHistory history = new EditHistory(start, 200);
+        CharacterSheet s = start;
+        for (int level = 2; level <= 7; level++) {
+            s = level(s, level);
+            history.record(s, level * 2 * SECOND);
+            assertTrue(history.bytes() <= 200);
+        }
+        int kept = history.size();
+        assertTrue(kept > 0 && kept < 6, "kept " + kept);
+        for (int i = 0; i < kept; i++) {
+            assertEquals(6 - i, history.undo().level());
+        }
+        assertNull(history.undo());
+        assertEquals(7 - kept, history.current().level()); // older states are gone
+    }
+
+    @Test
+    void sharedStringsAreNotChargedAgain() {
+        EditHistory history = new EditHistory(start, EditHistory.DEFAULT_MAX_BYTES);
+        history.record(level(start, 2), 0);
+        long levelOnly = history.bytes();
+        history.record(player(history.current(), "A much longer player name"), 2 * SECOND);
+        assertTrue(history.bytes() - levelOnly > levelOnly, "changed text is charged");
+    }
+
+    private static CharacterSheet level(CharacterSheet s, int level) {
+        return new CharacterSheet(s.playerName(), s.characterName(), s.className(), level);
+    }
+
+    private static CharacterSheet player(CharacterSheet s, String name) {
+        return new CharacterSheet(name, s.characterName(), s.className(), s.level());
+    }
+
+    private static CharacterSheet withClass(CharacterSheet s, String className) {
+        return new CharacterSheet(s.playerName(), s.characterName(), className, s.level());
+    }
+}
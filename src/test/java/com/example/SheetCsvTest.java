@@ -0,0 +1,55 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class SheetCsvTest {
+
+    @Test
+    void headerIsSkippedAndRowsKeepFileOrder() throws IOException {
+        Map<String, String> fields = read("fxid,value\n" + CharacterSheet.PLAYER_NAME + ",Ann\n" + CharacterSheet.LEVEL + ",7\n");
+        assertEquals(Map.of(CharacterSheet.PLAYER_NAME, "Ann", CharacterSheet.LEVEL, "7"), fields);
+        assertEquals(CharacterSheet.PLAYER_NAME, fields.keySet().iterator().next());
+    }
+
+    @Test
+    void extraUnquotedColumnsAreJoinedBackIntoTheValue() throws IOException {
+        assertEquals(Map.of("note", "a,b,,c"), read("note,a,b,,c\n"));
+    }
+
+    @Test
+    void quotedValueAndMissingValue() throws IOException {
+        assertEquals(Map.of("note", "x, \"y\"\nz", "empty", "", "bare", ""),
+                read("note,\"x, \"\"y\"\"\nz\"\nempty,\nbare"));
+    }
+
+    @Test
+    void rowsWithoutKeyAreIgnoredAndLaterRowsWin() throws IOException {
+        assertEquals(Map.of("k", "2"), read(",orphan\nk,1\n\nk,2"));
+    }
+
+    @Test
+    void writtenSheetReadsBackUnchanged() throws IOException {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(CharacterSheet.PLAYER_NAME, "Ann, \"the\" Bold");
+        fields.put(CharacterSheet.CHARACTER_NAME, "two\r\nlines");
+        fields.put(CharacterSheet.LEVEL, "");
+        fields.put("strength_tf", "12");
+        StringWriter out = new StringWriter();
+        SheetCsv.writeFields(fields, out);
+        Map<String, String> back = read(out.toString());
+        assertEquals(fields, back);
+        assertEquals(fields.keySet().stream().toList(), back.keySet().stream().toList());
+    }
+
+    private static Map<String, String> read(String csv) throws IOException {
+        return SheetCsv.readFields(new StringReader(csv));
+    }
+}
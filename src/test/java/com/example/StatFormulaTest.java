@@ -0,0 +1,79 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class StatFormulaTest {
+
+    /* strength, dexterity, intelligence, luck, power */
+    private static final int[] ATTRIBUTES = {10, 20, 30, 7, 3};
+    private static final int LEVEL = 5;
+
+    @Test
+    void precedenceAndAssociativity() {
+        assertEquals(7, eval("1 + 2 * 3"));
+        assertEquals(9, eval("(1 + 2) * 3"));
+        assertEquals(5, eval("10 - 3 - 2"));
+        assertEquals(2, eval("12 / 3 / 2"));
+        assertEquals(2, eval("10 % 4 % 3"));
+        assertEquals(-4, eval("-2 * 2"));
+        assertEquals(8, eval("10 - -2 * -1"));
+        assertEquals(2, eval("--2"));
+    }
+
+    @Test
+    void namesReadAttributesAndLevel() {
+        assertEquals(23, eval("strength * 2 + power"));
+        assertEquals(26, eval("min(luck * 3 + level, 75)"));
+        assertEquals(30, eval("MAX(Dexterity, intelligence)"));
+        assertEquals(15, eval("abs(level - strength * 2)"));
+    }
+
+    @Test
+    void divisionByZeroGivesZero() {
+        assertEquals(0, eval("strength / (level - 5)"));
+        assertEquals(0, eval("7 % 0"));
+    }
+
+    @Test
+    void earlierFormulasAreInlined() {
+        StatFormula attack = StatFormula.compile("Attack", "strength * 2", Map.of());
+        assertEquals("attack", attack.name());
+        StatFormula total = StatFormula.compile("total", "attack + level", Map.of("attack", attack));
+        assertEquals(25, total.evaluate(ATTRIBUTES, LEVEL));
+    }
+
+    @Test
+    void invalidFormulasAreRejected() {
+        for (String bad : new String[] {"", "1 +", "(1", "1)", "2 3", "unknown", "min(1)", "abs(1, 2)",
+                "nope(1)", "99999999999", "1 $ 2"}) {
+            assertThrows(IllegalArgumentException.class, () -> StatFormula.compile("x", bad, Map.of()), bad);
+        }
+        assertThrows(IllegalArgumentException.class, () -> StatFormula.compile("2x", "1", Map.of()));
+    }
+
+    @Test
+    void loadSkipsBadRowsAndRedefinitions() throws IOException {
+        String csv = "stat,formula\n"
+                + "attack,strength * 2 + power\n"
+                + "crit,min(luck * 3 + level, 75)\n" // unquoted commas re-joined
+                + "broken,1 +\n"
+                + "attack,1\n"
+                + "level,1\n"
+                + "burst,\"attack + crit\"\n";
+        List<StatFormula> formulas = StatFormula.load(new StringReader(csv), "test.csv");
+        assertEquals(List.of("attack", "crit", "burst"), formulas.stream().map(StatFormula::name).toList());
+        assertEquals(49, formulas.get(2).evaluate(ATTRIBUTES, LEVEL));
+    }
+
+    private static int eval(String source) {
+        return StatFormula.compile("x", source, Map.of()).evaluate(ATTRIBUTES, LEVEL);
+    }
+}